@@ -0,0 +1,185 @@
+package io.github.kattlo.cloudevents;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.generic.IndexedRecord;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.kafka.CloudEventSerializer;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.SchemaMetadata;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+import org.acme.AvroEventDataExample;
+
+/**
+ * Records, events and Schema Registry client shared by benchmarks.
+ *
+ * @author fabiojose
+ */
+final class BenchmarkData {
+
+    static final String TOPIC = "benchmark";
+
+    private BenchmarkData() {
+    }
+
+    static Map<String, Object> configs() {
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        return configs;
+    }
+
+    /**
+     * @param size small, like {@link AvroEventDataExample}, medium with 20
+     * fields or large with 100 fields
+     */
+    static IndexedRecord recordOf(String size) {
+        switch(size){
+            case "small":
+                return new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+            case "medium":
+                return wideRecordOf(20);
+            case "large":
+                return wideRecordOf(100);
+            default:
+                throw new IllegalArgumentException("unknown record size " + size);
+        }
+    }
+
+    private static IndexedRecord wideRecordOf(int fields) {
+
+        var builder = SchemaBuilder.record("AvroEventDataExample" + fields)
+            .namespace("org.acme")
+            .fields()
+            .requiredLong("code");
+
+        for(int i = 1; i < fields; i++){
+            builder = i % 2 == 0
+                ? builder.requiredLong("field" + i)
+                : builder.requiredString("field" + i);
+        }
+
+        Schema schema = builder.endRecord();
+
+        var record = new GenericRecordBuilder(schema).set("code", 300l);
+        for(int i = 1; i < fields; i++){
+            record.set("field" + i, i % 2 == 0
+                ? (Object)(long)i
+                : "Descrição do campo " + i);
+        }
+
+        return record.build();
+    }
+
+    static CloudEvent eventOf(IndexedRecord value, int extensions) {
+
+        var builder = CloudEventBuilder.v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/benchmark"))
+            .withType(value.getSchema().getFullName())
+            .withTime(OffsetDateTime.now())
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(value));
+
+        for(int i = 0; i < extensions; i++){
+            builder.withExtension("extension" + i, "value" + i);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Mock client that waits the configured latency in every call, to emulate
+     * the network round trip to Schema Registry.
+     */
+    static class LatencySchemaRegistryClient extends MockSchemaRegistryClient {
+
+        private final long latencyNanos;
+
+        LatencySchemaRegistryClient(long latencyMicros) {
+            this.latencyNanos = TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+        }
+
+        private void await() {
+            if(latencyNanos > 0){
+                LockSupport.parkNanos(latencyNanos);
+            }
+        }
+
+        @Override
+        public synchronized int register(String subject, ParsedSchema schema)
+            throws IOException, RestClientException {
+
+            await();
+            return super.register(subject, schema);
+        }
+
+        @Override
+        public synchronized ParsedSchema getSchemaById(int id)
+            throws IOException, RestClientException {
+
+            await();
+            return super.getSchemaById(id);
+        }
+
+        @Override
+        public synchronized int getVersion(String subject, ParsedSchema schema)
+            throws IOException, RestClientException {
+
+            await();
+            return super.getVersion(subject, schema);
+        }
+
+        @Override
+        public synchronized int getId(String subject, ParsedSchema schema)
+            throws IOException, RestClientException {
+
+            await();
+            return super.getId(subject, schema);
+        }
+
+        @Override
+        public synchronized List<Integer> getAllVersions(String subject)
+            throws IOException, RestClientException {
+
+            await();
+            return new ArrayList<>(super.getAllVersions(subject));
+        }
+
+        @Override
+        public synchronized SchemaMetadata getLatestSchemaMetadata(String subject)
+            throws IOException, RestClientException {
+
+            await();
+            return super.getLatestSchemaMetadata(subject);
+        }
+
+        @Override
+        public synchronized Collection<String> getAllSubjects()
+            throws IOException, RestClientException {
+
+            await();
+            return super.getAllSubjects();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.kattlo.cloudevents;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.cloudevents.CloudEvent;
+
+/**
+ * Throughput of {@link KafkaAvroCloudEventDeserializer#deserialize(String, Headers, byte[])}.
+ * Run with the gc profiler to get the allocation rate.
+ *
+ * @author fabiojose
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaAvroCloudEventDeserializerBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    @Param({"0", "4", "16"})
+    public int extensions;
+
+    /**
+     * Latency injected in every Schema Registry call, in microseconds
+     */
+    @Param({"0", "1000"})
+    public long registryLatency;
+
+    @Param({"false", "true"})
+    public boolean lazy;
+
+    @Param({"false", "true"})
+    public boolean fastCoders;
+
+    private KafkaAvroCloudEventDeserializer deserializer;
+    private Headers headers;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var registry = new BenchmarkData.LatencySchemaRegistryClient(registryLatency);
+        var configs = BenchmarkData.configs();
+        configs.put(KafkaAvroCloudEventDeserializer.LAZY_DECODING_CONFIG, lazy);
+        configs.put(KafkaAvroCloudEventDeserializer.FAST_CODERS_CONFIG, fastCoders);
+
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        serializer.configure(configs, false);
+
+        headers = new RecordHeaders();
+        bytes = serializer.serialize(BenchmarkData.TOPIC, headers,
+            BenchmarkData.eventOf(BenchmarkData.recordOf(size), extensions));
+
+        serializer.close();
+
+        deserializer = new KafkaAvroCloudEventDeserializer(registry);
+        deserializer.configure(configs, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        deserializer.close();
+    }
+
+    /**
+     * Deserialize and read an attribute, as done by consumers that filter
+     * events without touching the data.
+     */
+    @Benchmark
+    public String deserializeAttributes() {
+        CloudEvent event = deserializer.deserialize(BenchmarkData.TOPIC, headers, bytes);
+        return event.getType();
+    }
+
+    @Benchmark
+    public Object deserializeData() {
+        CloudEvent event = deserializer.deserialize(BenchmarkData.TOPIC, headers, bytes);
+        return AvroCloudEventData.dataOf(event.getData());
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.kattlo.cloudevents;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.cloudevents.CloudEvent;
+
+/**
+ * Throughput of {@link KafkaAvroCloudEventSerializer#serialize(String, org.apache.kafka.common.header.Headers, Object)}.
+ * Run with the gc profiler to get the allocation rate.
+ *
+ * @author fabiojose
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaAvroCloudEventSerializerBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String size;
+
+    @Param({"0", "4", "16"})
+    public int extensions;
+
+    /**
+     * Latency injected in every Schema Registry call, in microseconds
+     */
+    @Param({"0", "1000"})
+    public long registryLatency;
+
+    @Param({"false", "true"})
+    public boolean fastCoders;
+
+    private KafkaAvroCloudEventSerializer serializer;
+    private CloudEvent event;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        var registry = new BenchmarkData.LatencySchemaRegistryClient(registryLatency);
+
+        var configs = BenchmarkData.configs();
+        configs.put(KafkaAvroCloudEventSerializer.FAST_CODERS_CONFIG, fastCoders);
+
+        serializer = new KafkaAvroCloudEventSerializer(registry);
+        serializer.configure(configs, false);
+
+        event = BenchmarkData.eventOf(BenchmarkData.recordOf(size), extensions);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        serializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(BenchmarkData.TOPIC, new RecordHeaders(), event);
+    }
+}
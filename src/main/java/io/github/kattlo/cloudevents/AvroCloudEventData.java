@@ -1,36 +1,305 @@
 package io.github.kattlo.cloudevents;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.avro.generic.IndexedRecord;
 
 import io.cloudevents.CloudEventData;
 import io.cloudevents.core.message.Encoding;
-import lombok.EqualsAndHashCode;
-import lombok.Getter;
-import lombok.ToString;
 
 /**
  * Avro CloudEvent data to use with {@link Encoding#BINARY}
+ * <p>
+ * When created by the {@link KafkaAvroCloudEventDeserializer} in lazy mode,
+ * it holds the raw payload and decodes it just in the first access to
+ * {@link #getValue()}. A compressed payload is also decompressed just in the
+ * first access to the value or the raw payload, and kept.
+ * <p>
+ * When it holds the raw payload, {@link #toBytes()} and {@link #toByteBuffer()}
+ * return it in the Schema Registry wire format, without any encoding.
+ * <p>
+ * When the payload was offloaded to a {@link ClaimCheckStore}, it is fetched
+ * just in the access, and not kept.
+ * <p>
+ * Equality and hash code follow the mode of data, and data of different
+ * modes are never equal:
+ * <ul>
+ *   <li>with a value, given or decoded eagerly, they are based on the value,
+ *   even when the raw payload is retained</li>
+ *   <li>lazy, on the schema id and raw payload, so they never decode it,
+ *   but decompress it</li>
+ *   <li>offloaded, on the schema id and claim-check reference, so they never
+ *   fetch it</li>
+ * </ul>
+ *
  * @author fabiojose
  */
-@ToString
-@EqualsAndHashCode
-@Getter
 public class AvroCloudEventData<T extends IndexedRecord>
 implements
     CloudEventData {
 
     public static final String MIME_TYPE = "application/avro";
 
+    /**
+     * Content-type of CloudEvents written in {@link Encoding#STRUCTURED} mode
+     */
+    public static final String STRUCTURED_MIME_TYPE = "application/cloudevents+avro";
+
+    /**
+     * The value given to the constructor or decoded eagerly by the
+     * deserializer. It is {@code null} when the data is decoded lazily or
+     * fetched from the claim-check store, so prefer {@link #getValue()}.
+     */
     public final T value;
+
+    private volatile T decoded;
+
+    private volatile byte[] bytes;
+
+    /**
+     * Gets the payload once, like decompressing it, or {@code null}
+     */
+    private final Supplier<byte[]> inflater;
+
+    private final Supplier<byte[]> loader;
+    private final Object reference;
+    private final Integer schemaId;
+    private Function<byte[], T> decoder;
+
     public AvroCloudEventData(final T value){
         this.value = Objects.requireNonNull(value);
+        this.bytes = null;
+        this.inflater = null;
+        this.loader = null;
+        this.reference = null;
+        this.schemaId = null;
+    }
+
+    /**
+     * Data with decoded value that also keeps the raw payload.
+     *
+     * @param value Decoded value
+     * @param bytes Payload in the Schema Registry wire format
+     * @param schemaId Id of schema used to write the payload
+     */
+    AvroCloudEventData(T value, byte[] bytes, int schemaId) {
+        this.value = Objects.requireNonNull(value);
+        this.bytes = Objects.requireNonNull(bytes);
+        this.inflater = null;
+        this.loader = null;
+        this.reference = null;
+        this.schemaId = schemaId;
+    }
+
+    private AvroCloudEventData(byte[] bytes, Supplier<byte[]> inflater, Supplier<byte[]> loader,
+        Object reference, int schemaId, Function<byte[], T> decoder) {
+
+        this.value = null;
+        this.bytes = bytes;
+        this.inflater = inflater;
+        this.loader = loader;
+        this.reference = reference;
+        this.schemaId = schemaId;
+        this.decoder = Objects.requireNonNull(decoder);
+    }
+
+    /**
+     * Data that decodes the payload just when {@link #getValue()} is accessed
+     * by the first time.
+     *
+     * @param bytes Payload in the Schema Registry wire format
+     * @param schemaId Id of schema used to write the payload
+     * @param decoder Function to decode the payload
+     */
+    static <T extends IndexedRecord> AvroCloudEventData<T> lazy(byte[] bytes,
+        int schemaId, Function<byte[], T> decoder) {
+
+        return new AvroCloudEventData<>(Objects.requireNonNull(bytes), null, null, null,
+            schemaId, decoder);
+    }
+
+    /**
+     * Data that gets the payload, like decompressing it, just when the value
+     * or payload is accessed by the first time, keeping it.
+     *
+     * @param inflater Function to get the payload in the Schema Registry wire
+     * format, called once
+     * @param schemaId Id of schema used to write the payload
+     * @param decoder Function to decode the payload
+     */
+    static <T extends IndexedRecord> AvroCloudEventData<T> lazy(Supplier<byte[]> inflater,
+        int schemaId, Function<byte[], T> decoder) {
+
+        return new AvroCloudEventData<>(null, Objects.requireNonNull(inflater), null, null,
+            schemaId, decoder);
+    }
+
+    /**
+     * Data that fetches and decodes the payload just when it is accessed.
+     *
+     * @param reference Where the payload is, like the claim-check URI
+     * @param loader Function to fetch the payload, in the Schema Registry
+     * wire format, like from a {@link ClaimCheckStore}
+     * @param schemaId Id of schema used to write the payload
+     * @param decoder Function to decode the payload
+     */
+    static <T extends IndexedRecord> AvroCloudEventData<T> claimed(Object reference,
+        Supplier<byte[]> loader, int schemaId, Function<byte[], T> decoder) {
+
+        return new AvroCloudEventData<>(null, null, Objects.requireNonNull(loader),
+            Objects.requireNonNull(reference), schemaId, decoder);
+    }
+
+    /**
+     * @return The data value, decoding it when it was not yet
+     * @throws org.apache.kafka.common.errors.SerializationException When lazy
+     * decoding fails
+     */
+    public T getValue() {
+        if(null != value){
+            return value;
+        }
+
+        var result = decoded;
+        if(null == result){
+            synchronized(this){
+                result = decoded;
+                if(null == result){
+                    var payload = payload();
+                    result = Objects.requireNonNull(decoder.apply(
+                        null != payload ? payload : loader.get()));
+                    decoded = result;
+                    decoder = null;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return {@code true} when the value is available without decoding
+     */
+    public boolean isDecoded() {
+        return null != value || null != decoded;
     }
 
+    /**
+     * @return Id of the writer schema, or {@code null} when the data was not
+     * deserialized from a Kafka record
+     */
+    public Integer getSchemaId() {
+        return schemaId;
+    }
+
+    /**
+     * @return {@code true} when the raw payload is available
+     */
+    public boolean hasBytes() {
+        return null != bytes || null != inflater || null != loader;
+    }
+
+    /**
+     * @return The kept payload, getting it by the first time, or {@code null}
+     */
+    private byte[] payload() {
+        var result = bytes;
+        if(null == result && null != inflater){
+            synchronized(this){
+                result = bytes;
+                if(null == result){
+                    result = Objects.requireNonNull(inflater.get());
+                    bytes = result;
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * The raw payload, in the Schema Registry wire format, without copying it.
+     * So, do not modify the returned array. The offloaded payload is fetched
+     * at each call.
+     *
+     * @return The raw payload or an empty array when it is not available
+     */
     @Override
     public byte[] toBytes() {
-        return new byte[]{};
+        var payload = payload();
+        if(null != payload){
+            return payload;
+        }
+
+        return null != loader
+            ? loader.get()
+            : new byte[]{};
+    }
+
+    /**
+     * @return Read-only view over the raw payload, in the Schema Registry wire
+     * format, or an empty buffer when it is not available
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(toBytes()).asReadOnlyBuffer();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o){
+            return true;
+        }
+        if(!(o instanceof AvroCloudEventData)){
+            return false;
+        }
+
+        var other = (AvroCloudEventData<?>)o;
+        if(null != value || null != other.value){
+            return Objects.equals(value, other.value);
+        }
+
+        if(null != reference || null != other.reference){
+            return Objects.equals(schemaId, other.schemaId)
+                && Objects.equals(reference, other.reference);
+        }
+
+        return Objects.equals(schemaId, other.schemaId)
+            && Arrays.equals(payload(), other.payload());
+    }
+
+    @Override
+    public int hashCode() {
+        if(null != value){
+            return value.hashCode();
+        }
+
+        if(null != reference){
+            return 31 * Objects.hashCode(schemaId) + reference.hashCode();
+        }
+
+        return 31 * Objects.hashCode(schemaId) + Arrays.hashCode(payload());
+    }
+
+    @Override
+    public String toString() {
+        var payload = bytes;
+        if(null != payload){
+            return "AvroCloudEventData(schemaId=" + schemaId + ", bytes=" + payload.length + ")";
+        }
+
+        if(null != inflater){
+            return "AvroCloudEventData(schemaId=" + schemaId + ", compressed)";
+        }
+
+        if(null != reference){
+            return "AvroCloudEventData(schemaId=" + schemaId + ", reference=" + reference + ")";
+        }
+
+        return "AvroCloudEventData(value=" + value + ")";
     }
 
     /**
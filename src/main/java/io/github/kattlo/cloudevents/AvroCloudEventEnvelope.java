@@ -0,0 +1,241 @@
+package io.github.kattlo.cloudevents;
+
+import java.net.URI;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.kafka.common.errors.SerializationException;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.SpecVersion;
+import io.cloudevents.core.message.Encoding;
+import io.cloudevents.core.v1.CloudEventV1;
+import io.cloudevents.types.Time;
+
+/**
+ * Compact Avro envelope of {@link Encoding#STRUCTURED} CloudEvents: typed
+ * attribute fields, a map of extensions and the data as nested record.
+ * <p>
+ * There is one envelope schema per data schema, named
+ * {@code <data schema full name>.CloudEvent}.
+ * <p>
+ * The time is written as {@code timestamp-micros}, the same instant, but
+ * truncated to microseconds and read back with the UTC offset.
+ *
+ * @author fabiojose
+ */
+final class AvroCloudEventEnvelope {
+
+    static final String NAME = "CloudEvent";
+
+    static final String SPECVERSION = CloudEventV1.SPECVERSION;
+    static final String ID = CloudEventV1.ID;
+    static final String SOURCE = CloudEventV1.SOURCE;
+    static final String TYPE = CloudEventV1.TYPE;
+    static final String DATACONTENTTYPE = CloudEventV1.DATACONTENTTYPE;
+    static final String DATASCHEMA = CloudEventV1.DATASCHEMA;
+    static final String SUBJECT = CloudEventV1.SUBJECT;
+    static final String TIME = CloudEventV1.TIME;
+    static final String EXTENSIONS = "extensions";
+    static final String DATA = "data";
+
+    private static final Schema OPTIONAL_STRING = Schema.createUnion(
+        Schema.create(Schema.Type.NULL), Schema.create(Schema.Type.STRING));
+
+    private static final Schema OPTIONAL_TIME = Schema.createUnion(
+        Schema.create(Schema.Type.NULL),
+        LogicalTypes.timestampMicros().addToSchema(Schema.create(Schema.Type.LONG)));
+
+    private static final Schema EXTENSION_VALUES = Schema.createMap(Schema.createUnion(
+        Schema.create(Schema.Type.STRING),
+        Schema.create(Schema.Type.INT),
+        Schema.create(Schema.Type.BOOLEAN)));
+
+    private static final ConcurrentMap<Schema, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
+    private AvroCloudEventEnvelope() {
+    }
+
+    /**
+     * @param data Schema of CloudEvent data
+     * @return The envelope schema for data schema
+     */
+    static Schema schemaOf(Schema data) {
+        return SCHEMAS.computeIfAbsent(data, AvroCloudEventEnvelope::newSchema);
+    }
+
+    private static Schema newSchema(Schema data) {
+        return SchemaBuilder.record(NAME)
+            .namespace(data.getFullName())
+            .fields()
+                .requiredString(SPECVERSION)
+                .requiredString(ID)
+                .requiredString(SOURCE)
+                .requiredString(TYPE)
+                .name(DATACONTENTTYPE).type(OPTIONAL_STRING).withDefault(null)
+                .name(DATASCHEMA).type(OPTIONAL_STRING).withDefault(null)
+                .name(SUBJECT).type(OPTIONAL_STRING).withDefault(null)
+                .name(TIME).type(OPTIONAL_TIME).withDefault(null)
+                .name(EXTENSIONS).type(EXTENSION_VALUES).withDefault(Map.of())
+                .name(DATA).type(data).noDefault()
+            .endRecord();
+    }
+
+    /**
+     * @param event CloudEvent with attributes and extensions
+     * @param data Value of CloudEvent data
+     * @return The envelope record
+     */
+    static GenericRecord envelopeOf(CloudEvent event, IndexedRecord data) {
+
+        var envelope = new GenericData.Record(schemaOf(data.getSchema()));
+
+        envelope.put(SPECVERSION, event.getSpecVersion().toString());
+        envelope.put(ID, event.getId());
+        envelope.put(SOURCE, event.getSource().toString());
+        envelope.put(TYPE, event.getType());
+        envelope.put(DATACONTENTTYPE, event.getDataContentType());
+        envelope.put(SUBJECT, event.getSubject());
+
+        if(null != event.getDataSchema()){
+            envelope.put(DATASCHEMA, event.getDataSchema().toString());
+        }
+
+        if(null != event.getTime()){
+            envelope.put(TIME, microsOf(event.getTime()));
+        }
+
+        var names = event.getExtensionNames();
+        if(names.isEmpty()){
+            envelope.put(EXTENSIONS, Map.of());
+        } else {
+            var extensions = new HashMap<String, Object>(names.size() * 2);
+            for(String name : names){
+                extensions.put(name, extensionValueOf(event.getExtension(name)));
+            }
+            envelope.put(EXTENSIONS, extensions);
+        }
+
+        envelope.put(DATA, data);
+
+        return envelope;
+    }
+
+    /**
+     * @param envelope The envelope record
+     * @return Spec 1.0 CloudEvent with {@link AvroCloudEventData}
+     * @throws SerializationException When the record is not an envelope
+     */
+    static CloudEvent eventOf(IndexedRecord envelope) {
+
+        if(!(envelope instanceof GenericRecord)
+            || !NAME.equals(envelope.getSchema().getName())){
+            throw new SerializationException("record is not a CloudEvent envelope: "
+                + envelope.getSchema().getFullName());
+        }
+
+        var record = (GenericRecord)envelope;
+
+        var specversion = stringOf(record.get(SPECVERSION));
+        if(!SpecVersion.V1.toString().equals(specversion)){
+            throw new SerializationException(SPECVERSION + "=" + specversion + " not supported");
+        }
+
+        var dataschema = stringOf(record.get(DATASCHEMA));
+        var time = timeOf(record.get(TIME));
+
+        Map<String, Object> extensions = Map.of();
+        var values = (Map<?, ?>)record.get(EXTENSIONS);
+        if(null != values && !values.isEmpty()){
+            extensions = new HashMap<>(values.size() * 2);
+            for(Map.Entry<?, ?> value : values.entrySet()){
+                var extension = value.getValue() instanceof CharSequence
+                    ? value.getValue().toString()
+                    : value.getValue();
+
+                extensions.put(value.getKey().toString(), extension);
+            }
+        }
+
+        return new CloudEventV1(
+            stringOf(record.get(ID)),
+            uriOf(SOURCE, stringOf(record.get(SOURCE))),
+            stringOf(record.get(TYPE)),
+            stringOf(record.get(DATACONTENTTYPE)),
+            null == dataschema ? null : uriOf(DATASCHEMA, dataschema),
+            stringOf(record.get(SUBJECT)),
+            time,
+            new AvroCloudEventData<>((IndexedRecord)record.get(DATA)),
+            extensions);
+    }
+
+    private static String stringOf(Object value) {
+        return null == value
+            ? null
+            : value.toString();
+    }
+
+    private static Object extensionValueOf(Object value) {
+
+        if(value instanceof Boolean){
+            return value;
+        } else if(value instanceof Integer || value instanceof Short || value instanceof Byte){
+            return ((Number)value).intValue();
+        } else if(value instanceof Long
+            && (Long)value >= Integer.MIN_VALUE && (Long)value <= Integer.MAX_VALUE){
+            return ((Long)value).intValue();
+        } else if(value instanceof OffsetDateTime){
+            return Time.writeTime((OffsetDateTime)value);
+        } else if(value instanceof byte[]){
+            return Base64.getEncoder().encodeToString((byte[])value);
+        }
+
+        return value.toString();
+    }
+
+    private static long microsOf(OffsetDateTime time) {
+        var instant = time.toInstant();
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L),
+            instant.getNano() / 1_000);
+    }
+
+    /**
+     * @param value Microseconds since epoch or {@link Instant}, when the
+     * decoder has the logical type conversion
+     */
+    private static URI uriOf(String field, String value) {
+        try {
+            return URI.create(value);
+
+        }catch(IllegalArgumentException e){
+            throw new SerializationException("invalid " + field + "=" + value, e);
+        }
+    }
+
+    private static OffsetDateTime timeOf(Object value) {
+
+        if(value instanceof Long){
+            var micros = (Long)value;
+            return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                Math.floorMod(micros, 1_000_000L) * 1_000)
+                    .atOffset(ZoneOffset.UTC);
+
+        } else if(value instanceof Instant){
+            return ((Instant)value).atOffset(ZoneOffset.UTC);
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,299 @@
+package io.github.kattlo.cloudevents;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decodes payloads in the Schema Registry wire format, keeping by writer
+ * schema id the parsed schema, its target type and the prepared
+ * {@link DatumReader}s, so a known id costs a single map lookup. Per thread,
+ * a reusable {@link BinaryDecoder}.
+ *
+ * @author fabiojose
+ */
+@Slf4j
+final class AvroDataDecoder {
+
+    private static final DecoderFactory DECODERS = DecoderFactory.get();
+
+    private final SchemaRegistryClient registry;
+    private final boolean specific;
+    private final CloudEventMetrics metrics;
+    private final SchemaBundle bundle;
+    private final boolean fast;
+
+    private final ConcurrentMap<Integer, WriterSchema> writers =
+        new ConcurrentHashMap<>();
+
+    private final ThreadLocal<BinaryDecoder> decoders = new ThreadLocal<>();
+
+    /**
+     * @param registry Client to fetch the writer schemas
+     * @param specific {@code true} to decode as {@link SpecificRecord} when
+     * there is no reader class and the generated class of writer schema is
+     * in the classpath
+     */
+    AvroDataDecoder(SchemaRegistryClient registry, boolean specific) {
+        this(registry, specific, CloudEventMetrics.NOOP, SchemaBundle.EMPTY, false);
+    }
+
+    /**
+     * @param metrics To report the Schema Registry calls and reader cache
+     * accesses
+     * @param bundle Writer schemas to use before calling the Schema Registry
+     * @param fast {@code true} to use the {@link AvroFastCoders} readers
+     */
+    AvroDataDecoder(SchemaRegistryClient registry, boolean specific, CloudEventMetrics metrics,
+        SchemaBundle bundle, boolean fast) {
+        this.registry = Objects.requireNonNull(registry);
+        this.specific = specific;
+        this.metrics = Objects.requireNonNull(metrics);
+        this.bundle = Objects.requireNonNull(bundle);
+        this.fast = fast;
+    }
+
+    /**
+     * Decodes to the default record type
+     *
+     * @param bytes Payload in the Schema Registry wire format
+     * @throws SerializationException When the schema could not be fetched or
+     * the payload decoded
+     */
+    IndexedRecord decode(byte[] bytes) {
+        return decode(bytes, (Class<? extends SpecificRecord>)null);
+    }
+
+    /**
+     * @param bytes Payload in the Schema Registry wire format
+     * @param readerClass Class to decode to, or {@code null} to use the default
+     * @throws SerializationException When the schema could not be fetched or
+     * the payload decoded
+     */
+    IndexedRecord decode(byte[] bytes, Class<? extends SpecificRecord> readerClass) {
+
+        var schemaId = WireFormat.schemaIdOf(bytes);
+        var writer = writerOf(schemaId);
+
+        var reader = null == readerClass
+            ? writer.reader
+            : writer.readerOf(readerClass);
+
+        return decode(schemaId, bytes, reader);
+    }
+
+    /**
+     * @param bytes Payload in the Schema Registry wire format
+     * @param projection Fields to decode, the others are skipped
+     * @return Projected generic record
+     * @throws SerializationException When the schema could not be fetched or
+     * the payload decoded
+     */
+    IndexedRecord decode(byte[] bytes, AvroProjection projection) {
+
+        var schemaId = WireFormat.schemaIdOf(bytes);
+        var reader = writerOf(schemaId).readerOf(projection);
+
+        return decode(schemaId, bytes, reader);
+    }
+
+    private IndexedRecord decode(int schemaId, byte[] bytes, DatumReader<?> reader) {
+
+        try {
+            var decoder = DECODERS.binaryDecoder(bytes,
+                WireFormat.HEADER_SIZE, bytes.length - WireFormat.HEADER_SIZE, decoders.get());
+            decoders.set(decoder);
+
+            return (IndexedRecord)reader.read(null, decoder);
+
+        }catch(IOException | RuntimeException e){
+            throw new SerializationException("Error deserializing Avro message for id " + schemaId, e);
+        }
+    }
+
+    /**
+     * The ce_dataschema URI, parsed once per writer schema id while its
+     * header value does not change.
+     *
+     * @param schemaId Id of payload schema
+     * @param value Value of ce_dataschema header
+     */
+    URI dataschemaOf(int schemaId, byte[] value) {
+
+        var writer = writers.get(schemaId);
+        if(null == writer){
+            return CloudEventHeadersReader.uriOf(
+                CloudEventHeadersReader.DATASCHEMA_HEADER, value);
+        }
+
+        var dataschema = writer.dataschema;
+        if(null == dataschema || !Arrays.equals(dataschema.value, value)){
+            dataschema = new Dataschema(value.clone(), CloudEventHeadersReader.uriOf(
+                CloudEventHeadersReader.DATASCHEMA_HEADER, value));
+            writer.dataschema = dataschema;
+        }
+
+        return dataschema.uri;
+    }
+
+    /**
+     * @return {@code true} when the writer schema of id is known, so decoding
+     * it does not call the Schema Registry
+     */
+    boolean isPrepared(int schemaId) {
+        return writers.containsKey(schemaId);
+    }
+
+    private WriterSchema writerOf(int schemaId) {
+
+        var writer = writers.get(schemaId);
+        metrics.cacheAccessed("reader", null != writer);
+
+        if(null == writer){
+            // one fetch per id, even when many threads decode the same new schema
+            writer = writers.computeIfAbsent(schemaId, this::prepareWriter);
+        }
+
+        return writer;
+    }
+
+    private WriterSchema prepareWriter(int schemaId) {
+
+        try {
+            var schema = bundle.schemaOf(schemaId);
+            if(null == schema){
+                schema = (Schema)Metered.registry(metrics, "getSchemaById", () ->
+                    registry.getSchemaById(schemaId)).rawSchema();
+            }
+
+            var targetType = specific
+                ? SpecificData.get().getClass(schema)
+                : null;
+
+            var writer = new WriterSchema(schema, targetType, newReader(schema, targetType));
+            log.debug("DatumReader prepared {} {} {}", schemaId, targetType, writer.reader);
+
+            return writer;
+
+        }catch(IOException | RestClientException e){
+            throw new SerializationException("Error retrieving Avro schema for id " + schemaId, e);
+        }
+    }
+
+    private DatumReader<?> newReader(Schema writer, Class<?> targetType) {
+
+        if(null != targetType){
+            return newReader(writer, SpecificData.get().getSchema(targetType), true);
+        }
+
+        if(specific){
+            // generic record, but with the nested records that have generated class
+            return newReader(writer, writer, true);
+        }
+
+        return newReader(writer, writer, false);
+    }
+
+    private DatumReader<?> newReader(Schema writer, Schema reader, boolean specific) {
+
+        if(fast){
+            return AvroFastCoders.readerOf(writer, reader, specific);
+        }
+
+        return specific
+            ? new SpecificDatumReader<>(writer, reader)
+            : new GenericDatumReader<>(writer, reader);
+    }
+
+    /**
+     * What is known about a writer schema id
+     */
+    private final class WriterSchema {
+
+        private final Schema schema;
+
+        /**
+         * Generated class of schema, when decoding as specific
+         */
+        private final Class<?> targetType;
+
+        /**
+         * To decode without reader class
+         */
+        private final DatumReader<?> reader;
+
+        private final ConcurrentMap<Class<?>, DatumReader<?>> readers =
+            new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<AvroProjection, DatumReader<?>> projections =
+            new ConcurrentHashMap<>();
+
+        private volatile Dataschema dataschema;
+
+        WriterSchema(Schema schema, Class<?> targetType, DatumReader<?> reader) {
+            this.schema = schema;
+            this.targetType = targetType;
+            this.reader = reader;
+        }
+
+        DatumReader<?> readerOf(Class<? extends SpecificRecord> readerClass) {
+
+            if(readerClass == targetType){
+                return reader;
+            }
+
+            var result = readers.get(readerClass);
+            if(null == result){
+                result = readers.computeIfAbsent(readerClass, type ->
+                    newReader(schema, SpecificData.get().getSchema(type), true));
+            }
+
+            return result;
+        }
+
+        DatumReader<?> readerOf(AvroProjection projection) {
+
+            var result = projections.get(projection);
+            if(null == result){
+                result = projections.computeIfAbsent(projection, p -> {
+                    try {
+                        return newReader(schema, p.readerOf(schema), false);
+                    }catch(IllegalArgumentException e){
+                        throw new SerializationException(e.getMessage(), e);
+                    }
+                });
+            }
+
+            return result;
+        }
+    }
+
+    private static final class Dataschema {
+
+        private final byte[] value;
+        private final URI uri;
+
+        Dataschema(byte[] value, URI uri) {
+            this.value = value;
+            this.uri = uri;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package io.github.kattlo.cloudevents;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Encodes values in the Schema Registry wire format, keeping the prepared
+ * {@link DatumWriter} by schema and, per thread, a reusable
+ * {@link BinaryEncoder} and output buffer.
+ * <p>
+ * The buffer starts small and grows as needed. When it becomes much bigger
+ * than the recent records, it is shrunk back, so a single huge record does
+ * not stay retained.
+ *
+ * @author fabiojose
+ */
+final class AvroDataEncoder {
+
+    static final int MIN_BUFFER_SIZE = 512;
+
+    /**
+     * The buffer is shrunk when it is bigger than this and
+     * {@value #SHRINK_FACTOR} times the recent record sizes
+     */
+    static final int MAX_RETAINED_SIZE = 64 * 1024;
+    static final int SHRINK_FACTOR = 4;
+
+    private static final EncoderFactory ENCODERS = EncoderFactory.get();
+
+    private final ConcurrentMap<Schema, DatumWriter<Object>> specificWriters =
+        new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Schema, DatumWriter<Object>> genericWriters =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Writers of generated classes with another schema than their own, like
+     * the latest one of subject
+     */
+    private final ConcurrentMap<Schema, DatumWriter<Object>> foreignWriters =
+        new ConcurrentHashMap<>();
+
+    private final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+
+    private final boolean fast;
+
+    AvroDataEncoder() {
+        this(false);
+    }
+
+    /**
+     * @param fast {@code true} to use the {@link AvroFastCoders} writers
+     */
+    AvroDataEncoder(boolean fast) {
+        this.fast = fast;
+    }
+
+    /**
+     * @param schemaId Id of value schema, to write in the payload header
+     * @param value The value to encode
+     * @return Payload in the Schema Registry wire format, with exact size
+     * @throws SerializationException When the value could not be encoded
+     */
+    byte[] encode(int schemaId, IndexedRecord value) {
+        return encode(schemaId, value.getSchema(), value);
+    }
+
+    /**
+     * Encode aborting as soon as the payload exceeds the limit, before
+     * writing the rest of value.
+     *
+     * @param limit Maximum size of payload, in bytes
+     * @throws LimitExceededException When the payload exceeds the limit
+     */
+    byte[] encode(int schemaId, IndexedRecord value, int limit) {
+        return encode(schemaId, value.getSchema(), value, limit);
+    }
+
+    /**
+     * Like {@link #encode(int, IndexedRecord, int)}, writing with the given schema
+     */
+    byte[] encode(int schemaId, Schema schema, Object value, int limit) {
+
+        var buffer = buffers.get();
+        buffer.limit = limit;
+        try {
+            return encode(schemaId, schema, value);
+        } finally {
+            buffer.limit = Integer.MAX_VALUE;
+        }
+    }
+
+    /**
+     * @param schemaId Id of value schema, to write in the payload header
+     * @param schema Schema of value, like a primitive one
+     * @param value The value to encode
+     * @return Payload in the Schema Registry wire format, with exact size
+     * @throws SerializationException When the value could not be encoded
+     */
+    byte[] encode(int schemaId, Schema schema, Object value) {
+
+        var buffer = buffers.get();
+        buffer.reset();
+
+        try {
+            buffer.write(WireFormat.MAGIC_BYTE);
+            buffer.writeInt(schemaId);
+
+            var encoder = ENCODERS.directBinaryEncoder(buffer, buffer.encoder);
+            buffer.encoder = encoder;
+
+            writerOf(schema, value).write(value, encoder);
+            encoder.flush();
+
+            return buffer.toByteArray();
+
+        }catch(LimitExceededException e){
+            throw e;
+        }catch(IOException | RuntimeException e){
+            throw new SerializationException("Error serializing Avro message", e);
+        }
+    }
+
+    private DatumWriter<Object> writerOf(Schema schema, Object value) {
+
+        if(value instanceof SpecificRecord){
+            var own = ((SpecificRecord)value).getSchema();
+            if(own != schema && !own.equals(schema)){
+                // the generated encoder writes its own schema, not the given one
+                var writer = foreignWriters.get(schema);
+                if(null == writer){
+                    writer = foreignWriters.computeIfAbsent(schema, AvroFastCoders::standardWriterOf);
+                }
+                return writer;
+            }
+
+            var writer = specificWriters.get(schema);
+            if(null == writer){
+                writer = specificWriters.computeIfAbsent(schema, s -> fast
+                    ? AvroFastCoders.writerOf(s, true)
+                    : new SpecificDatumWriter<>(s));
+            }
+            return writer;
+        }
+
+        var writer = genericWriters.get(schema);
+        if(null == writer){
+            writer = genericWriters.computeIfAbsent(schema, GenericDatumWriter::new);
+        }
+        return writer;
+    }
+
+    /**
+     * The payload being encoded exceeded the limit
+     */
+    static final class LimitExceededException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        LimitExceededException(int limit) {
+            super("Payload exceeds " + limit + " bytes", null, false, false);
+        }
+    }
+
+    /**
+     * Unsynchronized, thread-confined, growable output buffer
+     */
+    static final class Buffer extends OutputStream {
+
+        private byte[] bytes = new byte[MIN_BUFFER_SIZE];
+        private int count;
+        private int recentSize = MIN_BUFFER_SIZE;
+
+        private BinaryEncoder encoder;
+        private int limit = Integer.MAX_VALUE;
+
+        void reset() {
+            if(bytes.length > MAX_RETAINED_SIZE
+                && bytes.length > recentSize * SHRINK_FACTOR){
+
+                bytes = new byte[Math.max(MIN_BUFFER_SIZE, recentSize * 2)];
+            }
+            count = 0;
+        }
+
+        int capacity() {
+            return bytes.length;
+        }
+
+        /**
+         * @param limit Maximum size of written bytes, past it the writes throw
+         * {@link LimitExceededException}
+         */
+        void limit(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(count + 1);
+            bytes[count++] = (byte)b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(count + len);
+            System.arraycopy(b, off, bytes, count, len);
+            count += len;
+        }
+
+        void writeInt(int value) {
+            ensureCapacity(count + Integer.BYTES);
+            bytes[count++] = (byte)(value >>> 24);
+            bytes[count++] = (byte)(value >>> 16);
+            bytes[count++] = (byte)(value >>> 8);
+            bytes[count++] = (byte)value;
+        }
+
+        /**
+         * @return Copy of written bytes, also taking its size as recent one
+         */
+        byte[] toByteArray() {
+            // moving average of the last records size
+            recentSize += (count - recentSize) / 8;
+
+            return Arrays.copyOf(bytes, count);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if(capacity > bytes.length || capacity > limit){
+                if(capacity > limit){
+                    throw new LimitExceededException(limit);
+                }
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.kattlo.cloudevents;
+
+import java.io.IOException;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.FastReaderBuilder;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compiled Avro writers and readers, prepared once per schema:
+ * <ul>
+ *   <li>writers of generated {@link org.apache.avro.specific.SpecificRecord}
+ *   classes use their generated {@code customEncode}, which writes the
+ *   fields directly, instead of walking the schema for every record</li>
+ *   <li>readers are composed by {@link FastReaderBuilder} from the resolution
+ *   of writer and reader schemas, instead of interpreting it for every
+ *   record</li>
+ * </ul>
+ * Unsupported shapes fall back to the standard path: classes generated
+ * without custom coders are written reflectively by Avro itself, and schemas
+ * the {@link FastReaderBuilder} could not compile are read by the standard
+ * {@link DatumReader}.
+ *
+ * @author fabiojose
+ */
+@Slf4j
+final class AvroFastCoders {
+
+    private static final SpecificData SPECIFIC = new SpecificData();
+    static {
+        SPECIFIC.setCustomCoders(true);
+    }
+
+    private static final SpecificData STANDARD = new SpecificData();
+    static {
+        STANDARD.setCustomCoders(false);
+    }
+
+    private static final FastReaderBuilder GENERIC_READERS =
+        new FastReaderBuilder(new GenericData());
+
+    private static final FastReaderBuilder SPECIFIC_READERS =
+        new FastReaderBuilder(new SpecificData());
+
+    private AvroFastCoders() {
+    }
+
+    /**
+     * @param schema Schema of values to write
+     * @param specific {@code true} to write {@link org.apache.avro.specific.SpecificRecord}
+     */
+    static DatumWriter<Object> writerOf(Schema schema, boolean specific) {
+        return specific
+            ? new SpecificDatumWriter<>(schema, SPECIFIC)
+            : new GenericDatumWriter<>(schema);
+    }
+
+    /**
+     * @param schema Schema to write the {@link org.apache.avro.specific.SpecificRecord}
+     * values by their fields, never by the generated {@code customEncode}
+     */
+    static DatumWriter<Object> standardWriterOf(Schema schema) {
+        return new SpecificDatumWriter<>(schema, STANDARD);
+    }
+
+    /**
+     * @param writer Schema used to write the payload
+     * @param reader Schema to read to
+     * @param specific {@code true} to read as generated classes, when they
+     * are in the classpath
+     */
+    static DatumReader<?> readerOf(Schema writer, Schema reader, boolean specific) {
+
+        try {
+            return (specific ? SPECIFIC_READERS : GENERIC_READERS)
+                .createDatumReader(writer, reader);
+
+        }catch(IOException | RuntimeException e){
+            log.debug("Fast reader not supported, using the standard one {} {}",
+                reader.getFullName(), e.getMessage());
+
+            return specific
+                ? new SpecificDatumReader<>(writer, reader)
+                : new GenericDatumReader<>(writer, reader);
+        }
+    }
+}
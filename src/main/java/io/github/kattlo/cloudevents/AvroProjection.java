@@ -0,0 +1,108 @@
+package io.github.kattlo.cloudevents;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.avro.Schema;
+
+/**
+ * Reader schema with a subset of the data fields, so the Avro schema
+ * resolution skips the others while decoding. It is a fixed schema, like an
+ * {@code .avsc} subset, or a list of top-level field names taken from each
+ * writer schema.
+ * <p>
+ * The projected data is always a {@link org.apache.avro.generic.GenericRecord},
+ * because it does not match the generated class.
+ *
+ * @author fabiojose
+ */
+final class AvroProjection {
+
+    /**
+     * Separator of field names given as String
+     */
+    static final String FIELD_SEPARATOR = ";";
+
+    private final Schema schema;
+    private final List<String> fields;
+
+    private AvroProjection(Schema schema, List<String> fields) {
+        this.schema = schema;
+        this.fields = fields;
+    }
+
+    /**
+     * @param name Name of configuration, to report errors
+     * @param value {@link Schema}, {@code .avsc} path, {@link Collection} of
+     * field names or String with field names separated by {@value #FIELD_SEPARATOR}
+     * @throws IllegalArgumentException When the value is not a valid projection
+     */
+    static AvroProjection of(String name, Object value) {
+        Objects.requireNonNull(value);
+
+        if(value instanceof Schema){
+            return new AvroProjection((Schema)value, null);
+        }
+
+        var fields = new ArrayList<String>();
+        if(value instanceof Collection){
+            ((Collection<?>)value).forEach(field -> fields.add(field.toString().trim()));
+
+        } else {
+            var location = value.toString().trim();
+            if(location.endsWith(AvroSchemas.AVSC)){
+                return new AvroProjection(AvroSchemas.load(name, List.of(location)).get(0), null);
+            }
+
+            for(String field : location.split(FIELD_SEPARATOR)){
+                if(!field.isBlank()){
+                    fields.add(field.trim());
+                }
+            }
+        }
+
+        if(fields.isEmpty()){
+            throw new IllegalArgumentException(name + " projection without fields: " + value);
+        }
+
+        return new AvroProjection(null, List.copyOf(fields));
+    }
+
+    /**
+     * @param writer Schema used to write the data
+     * @return Schema to read the data
+     * @throws IllegalArgumentException When the writer is not a record
+     */
+    Schema readerOf(Schema writer) {
+
+        if(null != schema){
+            return schema;
+        }
+
+        if(writer.getType() != Schema.Type.RECORD){
+            throw new IllegalArgumentException("Projection of fields " + fields
+                + " needs a record, not " + writer.getType());
+        }
+
+        // fields absent from this writer version are not projected
+        var projected = new ArrayList<Schema.Field>(fields.size());
+        for(String field : fields){
+            var writerField = writer.getField(field);
+            if(null != writerField){
+                projected.add(new Schema.Field(writerField, writerField.schema()));
+            }
+        }
+
+        return Schema.createRecord(writer.getName(), writer.getDoc(), writer.getNamespace(),
+            writer.isError(), projected);
+    }
+
+    @Override
+    public String toString() {
+        return null != schema
+            ? schema.getFullName()
+            : fields.toString();
+    }
+}
@@ -0,0 +1,201 @@
+package io.github.kattlo.cloudevents;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaParseException;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Loads Avro schemas given by configuration: generated classes, {@code .avsc}
+ * files, in the file system or classpath, or directories with them.
+ *
+ * @author fabiojose
+ */
+final class AvroSchemas {
+
+    static final String AVSC = ".avsc";
+
+    /**
+     * Property added by the generated classes to the {@code string} schemas
+     */
+    static final String JAVA_STRING_PROPERTY = "avro.java.string";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private AvroSchemas() {
+    }
+
+    /**
+     * @param name Name of configuration, to report errors
+     * @param values {@link Class}, class name, {@code .avsc} path or directory
+     * @return The schemas, in the same order of values
+     * @throws IllegalArgumentException When some value could not be loaded
+     */
+    static List<Schema> load(String name, Collection<?> values) {
+
+        var result = new ArrayList<Schema>();
+        for(Object value : values){
+            if(value instanceof Class){
+                result.add(schemaOf(name, value));
+
+            } else {
+                var location = value.toString().trim();
+                var path = Paths.get(location);
+
+                if(Files.isDirectory(path)){
+                    result.addAll(parseAll(name, filesOf(name, path)));
+
+                } else if(location.endsWith(AVSC)){
+                    result.add(parse(name, location, () -> open(name, location),
+                        new Schema.Parser()));
+
+                } else {
+                    result.add(schemaOf(name, location));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static Schema schemaOf(String name, Object value) {
+        return SpecificData.get().getSchema(Configs.classOf(name, value, SpecificRecord.class));
+    }
+
+    private static List<Path> filesOf(String name, Path directory) {
+        try(Stream<Path> files = Files.walk(directory)){
+            return files
+                .filter(file -> file.toString().endsWith(AVSC))
+                .sorted()
+                .collect(Collectors.toList());
+
+        }catch(IOException e){
+            throw new IllegalArgumentException(name + " could not list schema files: " + directory, e);
+        }
+    }
+
+    private static InputStream open(String name, String location) throws IOException {
+
+        var file = Paths.get(location);
+        if(Files.exists(file)){
+            return Files.newInputStream(file);
+        }
+
+        var resource = Thread.currentThread().getContextClassLoader()
+            .getResourceAsStream(location.startsWith("/") ? location.substring(1) : location);
+
+        if(null == resource){
+            throw new IllegalArgumentException(name + " schema file not found: " + location);
+        }
+
+        return resource;
+    }
+
+    @FunctionalInterface
+    private interface Source {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Parse the files sharing the named types, so one file may reference the
+     * types defined by others. Files referencing types not yet known are
+     * parsed again in the next pass, until no more file can be parsed.
+     *
+     * @return The schemas, in the same order of files
+     */
+    private static List<Schema> parseAll(String name, List<Path> files) {
+
+        var types = new HashMap<String, Schema>();
+        var parsed = new HashMap<Path, Schema>();
+        var pending = new ArrayList<>(files);
+
+        while(!pending.isEmpty()){
+            var before = pending.size();
+            IllegalArgumentException failure = null;
+
+            for(Iterator<Path> i = pending.iterator(); i.hasNext();){
+                var file = i.next();
+
+                // fresh parser per file, a failed one may keep partial types
+                var parser = new Schema.Parser().addTypes(types);
+                try {
+                    parsed.put(file, parse(name, file.toString(),
+                        () -> Files.newInputStream(file), parser));
+                    types.putAll(parser.getTypes());
+                    i.remove();
+
+                }catch(IllegalArgumentException e){
+                    failure = e;
+                }
+            }
+
+            if(pending.size() == before){
+                throw failure;
+            }
+        }
+
+        return files.stream().map(parsed::get).collect(Collectors.toList());
+    }
+
+    private static Schema parse(String name, String location, Source source,
+        Schema.Parser parser) {
+
+        try(var in = source.open()){
+            return parser.parse(in);
+
+        }catch(IOException | SchemaParseException e){
+            throw new IllegalArgumentException(name + " invalid schema file: " + location, e);
+        }
+    }
+
+    /**
+     * @return Copy of schema without the {@value #JAVA_STRING_PROPERTY}
+     * properties, or the same when it has none
+     */
+    static Schema withoutJavaProperties(Schema schema) {
+
+        var json = schema.toString();
+        if(!json.contains(JAVA_STRING_PROPERTY)){
+            return schema;
+        }
+
+        try {
+            var root = MAPPER.readTree(json);
+            removeJavaProperties(root);
+
+            return new Schema.Parser().parse(MAPPER.writeValueAsString(root));
+
+        }catch(JsonProcessingException e){
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private static void removeJavaProperties(JsonNode node) {
+
+        if(node instanceof ObjectNode){
+            ((ObjectNode)node).remove(JAVA_STRING_PROPERTY);
+        }
+
+        for(Iterator<JsonNode> children = node.elements(); children.hasNext();){
+            removeJavaProperties(children.next());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.kattlo.cloudevents;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Size bounded cache, with least recently used eviction and optional
+ * time-to-live for entries.
+ * <p>
+ * Expired entries are dropped when accessed, so the next lookup is a miss and
+ * the caller refreshes the value.
+ *
+ * @author fabiojose
+ */
+final class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<K, Entry<V>> entries;
+
+    /**
+     * @param maxSize Maximum number of entries, must be greater than zero
+     * @param ttl Time-to-live of entries, {@link Duration#ZERO} to never expire
+     */
+    BoundedCache(int maxSize, Duration ttl) {
+        if(maxSize <= 0){
+            throw new IllegalArgumentException("maxSize must be greater than zero: " + maxSize);
+        }
+
+        this.maxSize = maxSize;
+        this.ttlNanos = Objects.requireNonNull(ttl).toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > BoundedCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return The cached value or {@code null} when absent or expired
+     */
+    synchronized V get(K key) {
+        var entry = entries.get(key);
+        if(null == entry){
+            return null;
+        }
+
+        if(ttlNanos > 0 && System.nanoTime() - entry.createdAt >= ttlNanos){
+            entries.remove(key);
+            return null;
+        }
+
+        return entry.value;
+    }
+
+    synchronized void put(K key, V value) {
+        entries.put(Objects.requireNonNull(key),
+            new Entry<>(Objects.requireNonNull(value), System.nanoTime()));
+    }
+
+    synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long createdAt;
+
+        Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.kattlo.cloudevents;
+
+import java.io.IOException;
+import java.net.URI;
+
+import io.cloudevents.CloudEvent;
+
+/**
+ * Storage for the payloads too large to travel in the Kafka record, the
+ * claim-check pattern: the serializer stores the payload and writes just its
+ * reference in the {@value #HEADER} header, then the deserializer fetches it
+ * back when the data is accessed.
+ * <p>
+ * Configure it by {@code cloudevents.avro.claimcheck.store.class} with the
+ * class name or an instance, in both serializer and deserializer. It needs a
+ * public no-args constructor and, when it implements
+ * {@link org.apache.kafka.common.Configurable}, receives the configurations.
+ * <p>
+ * The implementations must be thread-safe.
+ *
+ * @author fabiojose
+ * @see FilesystemClaimCheckStore
+ */
+public interface ClaimCheckStore {
+
+    String EXTENSION = "claimcheck";
+    String HEADER = "ce_" + EXTENSION;
+
+    /**
+     * @param topic Topic of record
+     * @param event CloudEvent whose data is offloaded
+     * @param payload Data in the Schema Registry wire format
+     * @return Reference to fetch the payload
+     */
+    URI store(String topic, CloudEvent event, byte[] payload) throws IOException;
+
+    /**
+     * @param reference Returned by {@link #store(String, CloudEvent, byte[])}
+     * @return Payload in the Schema Registry wire format
+     */
+    byte[] fetch(URI reference) throws IOException;
+}
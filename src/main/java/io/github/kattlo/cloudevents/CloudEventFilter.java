@@ -0,0 +1,51 @@
+package io.github.kattlo.cloudevents;
+
+import io.cloudevents.CloudEvent;
+
+/**
+ * Predicate over the CloudEvent attributes, evaluated by the deserializer
+ * with the ce_* headers before any Avro decoding. Rejected records do not
+ * touch the Avro decoder nor the Schema Registry.
+ * <p>
+ * Configure it by {@code cloudevents.avro.filter.class} with the class name
+ * or an instance. It needs a public no-args constructor and, when it
+ * implements {@link org.apache.kafka.common.Configurable}, receives the
+ * deserializer configurations.
+ * <p>
+ * The implementations must be thread-safe and cheap, because they are called
+ * for every record.
+ *
+ * @author fabiojose
+ */
+@FunctionalInterface
+public interface CloudEventFilter {
+
+    /**
+     * What the deserializer returns for rejected records
+     */
+    enum Rejected {
+
+        /**
+         * CloudEvent with the attributes and extensions, but without data
+         */
+        ATTRIBUTES,
+
+        /**
+         * {@code null}, the same of Kafka tombstones
+         */
+        NULL
+    }
+
+    /**
+     * @param attributes CloudEvent read from the headers, without data
+     * @return {@code true} to decode the data
+     */
+    boolean accept(CloudEvent attributes);
+
+    /**
+     * @return Filter that accepts when both accept
+     */
+    default CloudEventFilter and(CloudEventFilter other) {
+        return attributes -> accept(attributes) && other.accept(attributes);
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.kattlo.cloudevents;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * The built-in {@link CloudEventFilter} implementations.
+ *
+ * @author fabiojose
+ */
+final class CloudEventFilters {
+
+    private CloudEventFilters() {
+    }
+
+    /**
+     * @param types Allowed CloudEvent types
+     */
+    static CloudEventFilter typeIn(Collection<?> types) {
+
+        var allowed = types.stream()
+            .map(Object::toString)
+            .collect(Collectors.toUnmodifiableSet());
+
+        return attributes -> allowed.contains(attributes.getType());
+    }
+
+    /**
+     * @param prefix Prefix of CloudEvent source URI
+     */
+    static CloudEventFilter sourceStartsWith(String prefix) {
+        Objects.requireNonNull(prefix);
+
+        return attributes -> attributes.getSource().toString().startsWith(prefix);
+    }
+
+    /**
+     * @param extensions Extension names and the expected values, compared as
+     * String
+     */
+    static CloudEventFilter extensionsEqual(Map<String, ?> extensions) {
+
+        var expected = Map.copyOf(extensions);
+
+        return attributes -> {
+            for(var entry : expected.entrySet()){
+                var actual = attributes.getExtension(entry.getKey());
+                if(null == actual || !actual.toString().equals(entry.getValue().toString())){
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+}
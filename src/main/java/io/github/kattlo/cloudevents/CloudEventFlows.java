@@ -0,0 +1,141 @@
+package io.github.kattlo.cloudevents;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+import org.apache.kafka.common.header.internals.RecordHeaders;
+
+import io.cloudevents.CloudEvent;
+
+/**
+ * {@link Flow.Processor} stages to serialize and deserialize streams of
+ * CloudEvents with the configured {@link KafkaAvroCloudEventSerializer} and
+ * {@link KafkaAvroCloudEventDeserializer}, to plug in Reactor,
+ * {@link java.util.concurrent.SubmissionPublisher} or any Reactive Streams
+ * library.
+ * <p>
+ * Each element is checked against the caches of serializer or deserializer,
+ * without blocking: the elements whose schema is not cached go to the
+ * executor, where the Schema Registry is called, while the others are
+ * processed in the signalling thread, from the caches. So the stream does not
+ * block on registry I/O, also when the cached schema ids, versions and
+ * ce_dataschema headers expire after
+ * {@link KafkaAvroCloudEventSerializer#VERSION_CACHE_TTL_MS_CONFIG} or are
+ * evicted above {@link KafkaAvroCloudEventSerializer#VERSION_CACHE_SIZE_CONFIG}.
+ * <ul>
+ *   <li>the output keeps the order of input</li>
+ *   <li>the upstream is requested as the downstream demands, at most
+ *   {@code bufferSize} elements ahead</li>
+ *   <li>up to {@code maxInFlight} schemas are resolved at same time</li>
+ *   <li>the first failure cancels the upstream and terminates the stream</li>
+ * </ul>
+ * Lazy data read by the deserializer is serialized in the executor, unless
+ * it is written verbatim in passthrough mode, because decoding it may fetch
+ * the writer schema.
+ *
+ * <pre>
+ * var serializing = CloudEventFlows.serializer(serializer, "my-topic", executor);
+ * publisher.subscribe(serializing);
+ *
+ * // Flow.Publisher&lt;SerializedCloudEvent&gt;
+ * serializing.subscribe(sender);
+ * </pre>
+ *
+ * @author fabiojose
+ */
+public final class CloudEventFlows {
+
+    public static final int MAX_IN_FLIGHT_DEFAULT = 4;
+    public static final int BUFFER_SIZE_DEFAULT = 256;
+
+    private CloudEventFlows() {
+    }
+
+    /**
+     * @param serializer Configured serializer, it is not closed by the stage
+     * @param topic Topic to produce the events
+     * @param executor To resolve the schemas, like one for blocking I/O
+     * @return A new stage, for one subscriber
+     */
+    public static Flow.Processor<CloudEvent, SerializedCloudEvent> serializer(
+        KafkaAvroCloudEventSerializer serializer, String topic, Executor executor) {
+
+        return serializer(serializer, topic, executor, MAX_IN_FLIGHT_DEFAULT,
+            BUFFER_SIZE_DEFAULT);
+    }
+
+    /**
+     * @param maxInFlight Maximum of schemas resolved at same time
+     * @param bufferSize Maximum of events requested ahead of the demand
+     */
+    public static Flow.Processor<CloudEvent, SerializedCloudEvent> serializer(
+        KafkaAvroCloudEventSerializer serializer, String topic, Executor executor,
+        int maxInFlight, int bufferSize) {
+
+        Objects.requireNonNull(serializer);
+        Objects.requireNonNull(topic);
+
+        return new OrderedCodecProcessor<CloudEvent, SerializedCloudEvent>(
+            CloudEventFlows::schemaOf,
+            event -> serializer.isResolved(topic, event),
+            event -> {
+                var headers = new RecordHeaders();
+                var value = serializer.serialize(topic, headers, event);
+
+                return new SerializedCloudEvent(headers, value);
+            },
+            executor, maxInFlight, bufferSize);
+    }
+
+    /**
+     * Events rejected by the {@link CloudEventFilter} with
+     * {@link CloudEventFilter.Rejected#NULL} are not emitted.
+     *
+     * @param deserializer Configured deserializer, it is not closed by the stage
+     * @param topic Topic of records
+     * @param executor To resolve the schemas, like one for blocking I/O
+     * @return A new stage, for one subscriber
+     */
+    public static Flow.Processor<SerializedCloudEvent, CloudEvent> deserializer(
+        KafkaAvroCloudEventDeserializer deserializer, String topic, Executor executor) {
+
+        return deserializer(deserializer, topic, executor, MAX_IN_FLIGHT_DEFAULT,
+            BUFFER_SIZE_DEFAULT);
+    }
+
+    /**
+     * @param maxInFlight Maximum of schemas resolved at same time
+     * @param bufferSize Maximum of records requested ahead of the demand
+     */
+    public static Flow.Processor<SerializedCloudEvent, CloudEvent> deserializer(
+        KafkaAvroCloudEventDeserializer deserializer, String topic, Executor executor,
+        int maxInFlight, int bufferSize) {
+
+        Objects.requireNonNull(deserializer);
+        Objects.requireNonNull(topic);
+
+        return new OrderedCodecProcessor<SerializedCloudEvent, CloudEvent>(
+            record -> WireFormat.schemaIdOf(record.getValue()),
+            record -> deserializer.isResolved(record.getValue()),
+            record -> deserializer.deserialize(topic, record.getHeaders(), record.getValue()),
+            executor, maxInFlight, bufferSize);
+    }
+
+    /**
+     * @return The schema id of raw payload, the schema of data or
+     * {@code null} when the event is not serializable
+     */
+    static Object schemaOf(CloudEvent event) {
+
+        if(event.getData() instanceof AvroCloudEventData){
+            var data = (AvroCloudEventData<?>)event.getData();
+
+            return data.hasBytes()
+                ? data.getSchemaId()
+                : data.getValue().getSchema();
+        }
+
+        return null;
+    }
+}
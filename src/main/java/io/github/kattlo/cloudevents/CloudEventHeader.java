@@ -0,0 +1,56 @@
+package io.github.kattlo.cloudevents;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.apache.kafka.common.header.Header;
+
+/**
+ * Immutable Kafka header, safe to share among records. Do not modify the
+ * array returned by {@link #value()}.
+ *
+ * @author fabiojose
+ */
+final class CloudEventHeader implements Header {
+
+    private final String key;
+    private final byte[] value;
+
+    CloudEventHeader(String key, byte[] value) {
+        this.key = Objects.requireNonNull(key);
+        this.value = value;
+    }
+
+    @Override
+    public String key() {
+        return key;
+    }
+
+    @Override
+    public byte[] value() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(this == o){
+            return true;
+        }
+        if(!(o instanceof CloudEventHeader)){
+            return false;
+        }
+
+        var other = (CloudEventHeader)o;
+        return key.equals(other.key) && Arrays.equals(value, other.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * key.hashCode() + Arrays.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return "CloudEventHeader(key = " + key + ", value = " + Arrays.toString(value) + ")";
+    }
+}
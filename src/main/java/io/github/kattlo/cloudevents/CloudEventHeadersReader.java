@@ -0,0 +1,186 @@
+package io.github.kattlo.cloudevents;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.CloudEventData;
+import io.cloudevents.SpecVersion;
+import io.cloudevents.core.message.Encoding;
+import io.cloudevents.core.v1.CloudEventV1;
+import io.cloudevents.types.Time;
+
+/**
+ * Reads the {@link Encoding#BINARY} Kafka headers, straight to a Spec 1.0
+ * CloudEvent, in a single pass.
+ *
+ * @author fabiojose
+ */
+final class CloudEventHeadersReader {
+
+    static final String CE_PREFIX = "ce_";
+    static final String CONTENT_TYPE_HEADER = "content-type";
+
+    static final String SPECVERSION_HEADER = CE_PREFIX + CloudEventV1.SPECVERSION;
+    static final String ID_HEADER = CE_PREFIX + CloudEventV1.ID;
+    static final String SOURCE_HEADER = CE_PREFIX + CloudEventV1.SOURCE;
+    static final String TYPE_HEADER = CE_PREFIX + CloudEventV1.TYPE;
+    static final String SUBJECT_HEADER = CE_PREFIX + CloudEventV1.SUBJECT;
+    static final String TIME_HEADER = CE_PREFIX + CloudEventV1.TIME;
+    static final String DATASCHEMA_HEADER = CE_PREFIX + CloudEventV1.DATASCHEMA;
+
+    private CloudEventHeadersReader() {
+    }
+
+    /**
+     * @param headers Kafka record headers
+     * @param contentType The datacontenttype of the resulting event
+     * @param data The data of the resulting event
+     * @return Spec 1.0 CloudEvent with attributes and extensions of headers
+     * @throws SerializationException When headers are not a valid Spec 1.0 CloudEvent
+     */
+    static CloudEvent read(Headers headers, String contentType, CloudEventData data) {
+        return read(headers, contentType, data,
+            value -> uriOf(DATASCHEMA_HEADER, value));
+    }
+
+    /**
+     * @param dataschemas To get the URI of ce_dataschema header value, like
+     * from a cache
+     */
+    static CloudEvent read(Headers headers, String contentType, CloudEventData data,
+        Function<byte[], URI> dataschemas) {
+
+        String specversion = null;
+        String id = null;
+        URI source = null;
+        String type = null;
+        String subject = null;
+        OffsetDateTime time = null;
+        URI dataschema = null;
+        Map<String, Object> extensions = null;
+
+        for(Header header : headers){
+            var key = header.key();
+            if(!key.startsWith(CE_PREFIX) || null == header.value()){
+                continue;
+            }
+
+            switch(key){
+                case SPECVERSION_HEADER:
+                    specversion = valueOf(header);
+                    break;
+                case ID_HEADER:
+                    id = valueOf(header);
+                    break;
+                case SOURCE_HEADER:
+                    source = uriOf(SOURCE_HEADER, header.value());
+                    break;
+                case TYPE_HEADER:
+                    type = valueOf(header);
+                    break;
+                case SUBJECT_HEADER:
+                    subject = valueOf(header);
+                    break;
+                case TIME_HEADER:
+                    time = timeOf(header);
+                    break;
+                case DATASCHEMA_HEADER:
+                    dataschema = dataschemas.apply(header.value());
+                    break;
+                case DataCompression.HEADER:
+                    // transport only, the data is already decompressed
+                    break;
+                case ClaimCheckStore.HEADER:
+                    // transport only, the data is fetched from the store
+                    break;
+                default:
+                    if(null == extensions){
+                        extensions = new HashMap<>();
+                    }
+                    extensions.put(key.substring(CE_PREFIX.length()), valueOf(header));
+            }
+        }
+
+        if(null == specversion){
+            throw new SerializationException("header " + SPECVERSION_HEADER + " not found, it is not a "
+                + Encoding.BINARY + " CloudEvent");
+        }
+
+        if(!SpecVersion.V1.toString().equals(specversion)){
+            throw new SerializationException(SPECVERSION_HEADER + "=" + specversion + " not supported");
+        }
+
+        requireHeader(id, ID_HEADER);
+        requireHeader(source, SOURCE_HEADER);
+        requireHeader(type, TYPE_HEADER);
+
+        return new CloudEventV1(id, source, type, contentType, dataschema,
+            subject, time, data, null == extensions ? Map.of() : extensions);
+    }
+
+    /**
+     * @param attributes Spec 1.0 CloudEvent, like the one read without data
+     * @param contentType The datacontenttype of the resulting event
+     * @param data The data of the resulting event
+     * @return Spec 1.0 CloudEvent with the same attributes and extensions
+     */
+    static CloudEvent withData(CloudEvent attributes, String contentType, CloudEventData data) {
+
+        var names = attributes.getExtensionNames();
+        Map<String, Object> extensions = names.isEmpty()
+            ? Map.of()
+            : new HashMap<>(names.size() * 2);
+
+        for(String name : names){
+            extensions.put(name, attributes.getExtension(name));
+        }
+
+        return new CloudEventV1(attributes.getId(), attributes.getSource(), attributes.getType(),
+            contentType, attributes.getDataSchema(), attributes.getSubject(), attributes.getTime(),
+            data, extensions);
+    }
+
+    /**
+     * @param header Name of header, for the error message
+     * @throws SerializationException When the value is not a valid URI
+     */
+    static URI uriOf(String header, byte[] value) {
+        var uri = new String(value, StandardCharsets.UTF_8);
+        try {
+            return URI.create(uri);
+
+        }catch(IllegalArgumentException e){
+            throw new SerializationException("invalid header " + header + "=" + uri, e);
+        }
+    }
+
+    private static String valueOf(Header header) {
+        return new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static OffsetDateTime timeOf(Header header) {
+        var value = valueOf(header);
+        try {
+            return Time.parseTime(value);
+
+        }catch(DateTimeException e){
+            throw new SerializationException("invalid header " + TIME_HEADER + "=" + value, e);
+        }
+    }
+
+    private static void requireHeader(Object value, String name) {
+        if(null == value){
+            throw new SerializationException("required header " + name + " not found");
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package io.github.kattlo.cloudevents;
+
+import static io.github.kattlo.cloudevents.CloudEventHeadersReader.CE_PREFIX;
+import static io.github.kattlo.cloudevents.CloudEventHeadersReader.CONTENT_TYPE_HEADER;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.SpecVersion;
+import io.cloudevents.core.message.Encoding;
+import io.cloudevents.core.v1.CloudEventV1;
+import io.cloudevents.types.Time;
+
+/**
+ * Writes the {@link Encoding#BINARY} Kafka headers of Spec 1.0 CloudEvents,
+ * the same way the {@link io.cloudevents.kafka.CloudEventSerializer} does,
+ * but without the ce_dataschema, that is resolved by the serializer.
+ * Binary extensions are written in Base64, as the Spec defines.
+ * <p>
+ * The headers of repeated source, type, datacontenttype and extension values
+ * are kept in a bounded interning table and shared among records. The
+ * unique ones, id, subject and time, are encoded straight to an exact sized
+ * array.
+ *
+ * @author fabiojose
+ */
+final class CloudEventHeadersWriter {
+
+    static final Header SPECVERSION = new CloudEventHeader(
+        CloudEventHeadersReader.SPECVERSION_HEADER,
+        SpecVersion.V1.toString().getBytes(StandardCharsets.UTF_8));
+
+    private static final int TIME_LENGTH = "yyyy-MM-ddTHH:mm:ss".length();
+
+    private final int maxSize;
+
+    /**
+     * Interned headers by attribute or extension name
+     */
+    private final ConcurrentMap<String, Interned> interned = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxSize Maximum number of interned values per attribute or
+     * extension and of interned extension names. Use {@code 0} to disable.
+     */
+    CloudEventHeadersWriter(int maxSize) {
+        if(maxSize < 0){
+            throw new IllegalArgumentException("maxSize must be greater than or equal to zero: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param event Spec 1.0 CloudEvent
+     * @param headers Headers to add the attributes and extensions
+     */
+    void write(CloudEvent event, Headers headers) {
+
+        headers.add(SPECVERSION);
+        headers.add(new CloudEventHeader(CloudEventHeadersReader.ID_HEADER, utf8Of(event.getId())));
+        headers.add(headerOf(CloudEventV1.SOURCE, event.getSource()));
+        headers.add(headerOf(CloudEventV1.TYPE, event.getType()));
+
+        if(null != event.getDataContentType()){
+            headers.add(headerOf(CloudEventV1.DATACONTENTTYPE, event.getDataContentType()));
+        }
+
+        if(null != event.getSubject()){
+            headers.add(new CloudEventHeader(CloudEventHeadersReader.SUBJECT_HEADER,
+                utf8Of(event.getSubject())));
+        }
+
+        if(null != event.getTime()){
+            headers.add(new CloudEventHeader(CloudEventHeadersReader.TIME_HEADER,
+                timeOf(event.getTime())));
+        }
+
+        for(String name : event.getExtensionNames()){
+            var value = event.getExtension(name);
+
+            if(value instanceof OffsetDateTime){
+                headers.add(new CloudEventHeader(CE_PREFIX + name, timeOf((OffsetDateTime)value)));
+            } else if(value instanceof byte[]){
+                // Base64, like the CloudEvents serializer, and never interned by array identity
+                headers.add(new CloudEventHeader(CE_PREFIX + name,
+                    utf8Of(Base64.getEncoder().encodeToString((byte[])value))));
+            } else if(null != value){
+                headers.add(headerOf(name, value));
+            }
+        }
+    }
+
+    private Header headerOf(String name, Object value) {
+
+        var values = interned.get(name);
+        if(null == values){
+            if(interned.size() >= maxSize){
+                return new CloudEventHeader(keyOf(name), utf8Of(value.toString()));
+            }
+
+            values = interned.computeIfAbsent(name, n -> new Interned(keyOf(n)));
+        }
+
+        var header = values.headers.get(value);
+        if(null == header){
+            header = new CloudEventHeader(values.key, utf8Of(value.toString()));
+
+            if(values.headers.size() < maxSize){
+                var previous = values.headers.putIfAbsent(value, header);
+                if(null != previous){
+                    header = previous;
+                }
+            }
+        }
+
+        return header;
+    }
+
+    private static String keyOf(String name) {
+        return CloudEventV1.DATACONTENTTYPE.equals(name)
+            ? CONTENT_TYPE_HEADER
+            : CE_PREFIX + name;
+    }
+
+    private static byte[] utf8Of(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encode like {@link Time#writeTime(OffsetDateTime)}, ISO-8601 with offset
+     * and the shortest fraction of second, straight to bytes.
+     */
+    static byte[] timeOf(OffsetDateTime time) {
+
+        var year = time.getYear();
+        var offset = time.getOffset().getTotalSeconds();
+
+        if(year < 0 || year > 9999 || offset % 60 != 0){
+            return utf8Of(Time.writeTime(time));
+        }
+
+        var nano = time.getNano();
+        var digits = 0;
+        var fraction = nano;
+        if(nano > 0){
+            digits = 9;
+            while(fraction % 10 == 0){
+                fraction /= 10;
+                digits--;
+            }
+        }
+
+        var length = TIME_LENGTH
+            + (digits > 0 ? 1 + digits : 0)
+            + (offset == 0 ? 1 : 6);
+
+        var result = new byte[length];
+
+        write(result, 0, year, 4);
+        result[4] = '-';
+        write(result, 5, time.getMonthValue(), 2);
+        result[7] = '-';
+        write(result, 8, time.getDayOfMonth(), 2);
+        result[10] = 'T';
+        write(result, 11, time.getHour(), 2);
+        result[13] = ':';
+        write(result, 14, time.getMinute(), 2);
+        result[16] = ':';
+        write(result, 17, time.getSecond(), 2);
+
+        var index = TIME_LENGTH;
+        if(digits > 0){
+            result[index++] = '.';
+            write(result, index, fraction, digits);
+            index += digits;
+        }
+
+        if(offset == 0){
+            result[index] = 'Z';
+        } else {
+            result[index] = (byte)(offset < 0 ? '-' : '+');
+
+            var minutes = Math.abs(offset) / 60;
+            write(result, index + 1, minutes / 60, 2);
+            result[index + 3] = ':';
+            write(result, index + 4, minutes % 60, 2);
+        }
+
+        return result;
+    }
+
+    /**
+     * Write the zero padded decimal value in the next {@code width} positions
+     */
+    private static void write(byte[] bytes, int offset, int value, int width) {
+        for(int i = offset + width - 1; i >= offset; i--){
+            bytes[i] = (byte)('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static final class Interned {
+
+        private final String key;
+        private final ConcurrentMap<Object, Header> headers = new ConcurrentHashMap<>();
+
+        Interned(String key) {
+            this.key = key;
+        }
+    }
+}
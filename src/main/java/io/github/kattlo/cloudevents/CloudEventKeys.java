@@ -0,0 +1,156 @@
+package io.github.kattlo.cloudevents;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.types.Time;
+
+/**
+ * Record keys derived from CloudEvent attributes or extensions, with the
+ * Avro key schema built once:
+ * <ul>
+ *   <li>one attribute is written as Avro {@code string}, the same of
+ *   {@link io.confluent.kafka.serializers.KafkaAvroSerializer} for String
+ *   keys</li>
+ *   <li>more attributes are written as record {@value #KEY_NAMESPACE}.{@value #KEY_NAME},
+ *   with one optional string field per attribute</li>
+ * </ul>
+ * Raw keys are the UTF-8 values, joined by {@value #RAW_SEPARATOR}.
+ * When the event has none of attributes, the key is {@code null}.
+ *
+ * @author fabiojose
+ */
+final class CloudEventKeys {
+
+    static final String KEY_NAMESPACE = "io.github.kattlo.cloudevents";
+    static final String KEY_NAME = "CloudEventKey";
+    static final String RAW_SEPARATOR = ":";
+
+    private static final Pattern FIELD_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    private final List<String> attributes;
+    private final Schema schema;
+
+    /**
+     * @param attributes Names of attributes or extensions, in key order
+     * @throws IllegalArgumentException When there are no attributes or, when
+     * they are more than one, they are repeated or not valid Avro field names
+     */
+    CloudEventKeys(List<String> attributes) {
+
+        if(attributes.isEmpty()){
+            throw new IllegalArgumentException("Key without attributes");
+        }
+        this.attributes = List.copyOf(attributes);
+
+        if(attributes.size() == 1){
+            schema = Schema.create(Schema.Type.STRING);
+
+        } else {
+            var fields = SchemaBuilder.record(KEY_NAME)
+                .namespace(KEY_NAMESPACE)
+                .fields();
+
+            var names = new HashSet<String>();
+            for(String attribute : attributes){
+                if(!FIELD_NAME.matcher(attribute).matches()){
+                    throw new IllegalArgumentException("Key attribute is not a valid Avro field name: "
+                        + attribute);
+                }
+                if(!names.add(attribute)){
+                    throw new IllegalArgumentException("Key attribute repeated: " + attribute);
+                }
+
+                fields = fields.optionalString(attribute);
+            }
+
+            schema = fields.endRecord();
+        }
+    }
+
+    /**
+     * @return Avro schema of keys
+     */
+    Schema getSchema() {
+        return schema;
+    }
+
+    List<String> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * @return String or {@link GenericData.Record} to write with the
+     * {@link #getSchema()}, or {@code null}
+     */
+    Object valueOf(CloudEvent event) {
+
+        if(attributes.size() == 1){
+            return attributeOf(event, attributes.get(0));
+        }
+
+        var key = new GenericData.Record(schema);
+        var present = false;
+        for(int i = 0; i < attributes.size(); i++){
+            var value = attributeOf(event, attributes.get(i));
+            key.put(i, value);
+            present |= null != value;
+        }
+
+        return present ? key : null;
+    }
+
+    /**
+     * @return UTF-8 values joined by {@value #RAW_SEPARATOR}, absent ones as
+     * empty, or {@code null}
+     */
+    byte[] rawOf(CloudEvent event) {
+
+        var joiner = new StringJoiner(RAW_SEPARATOR);
+        var present = false;
+        for(String attribute : attributes){
+            var value = attributeOf(event, attribute);
+            joiner.add(null != value ? value : "");
+            present |= null != value;
+        }
+
+        return present
+            ? joiner.toString().getBytes(StandardCharsets.UTF_8)
+            : null;
+    }
+
+    /**
+     * @return Value of attribute or extension as String, like written in the
+     * ce_* headers, or {@code null} when absent
+     */
+    static String attributeOf(CloudEvent event, String name) {
+
+        var value = event.getSpecVersion().getAllAttributes().contains(name)
+            ? event.getAttribute(name)
+            : event.getExtension(name);
+
+        if(null == value){
+            return null;
+        }
+
+        if(value instanceof OffsetDateTime){
+            return Time.writeTime((OffsetDateTime)value);
+        }
+
+        if(value instanceof byte[]){
+            return Base64.getEncoder().encodeToString((byte[])value);
+        }
+
+        return value.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.kattlo.cloudevents;
+
+/**
+ * Instrumentation of serializer and deserializer internals, to bind to the
+ * metrics library of application, like Micrometer. All the methods are no-op
+ * by default, implement just those of interest.
+ * <p>
+ * Configure it by {@code cloudevents.avro.metrics.class} with the class name
+ * or an instance. It needs a public no-args constructor and, when it
+ * implements {@link org.apache.kafka.common.Configurable}, receives the
+ * serializer or deserializer configurations.
+ * <p>
+ * The implementations must be thread-safe and cheap, because they are called
+ * for every record.
+ *
+ * @author fabiojose
+ */
+public interface CloudEventMetrics {
+
+    /**
+     * Does nothing, the default.
+     */
+    CloudEventMetrics NOOP = new CloudEventMetrics() {};
+
+    String SERIALIZE = "serialize";
+    String DESERIALIZE = "deserialize";
+
+    /**
+     * @param topic Topic of record
+     * @param type CloudEvent type
+     * @param nanos Time spent to serialize
+     * @param payloadBytes Size of serialized value
+     * @param headerBytes Size of header keys and values
+     */
+    default void serialized(String topic, String type, long nanos, int payloadBytes,
+        int headerBytes) {
+    }
+
+    /**
+     * @param topic Topic of record
+     * @param type CloudEvent type
+     * @param nanos Time spent to deserialize, without the lazy decoding
+     * @param payloadBytes Size of consumed value
+     * @param headerBytes Size of header keys and values
+     */
+    default void deserialized(String topic, String type, long nanos, int payloadBytes,
+        int headerBytes) {
+    }
+
+    /**
+     * Record rejected by the {@link CloudEventFilter}, without decoding its data.
+     *
+     * @param topic Topic of record
+     * @param type CloudEvent type
+     */
+    default void filtered(String topic, String type) {
+    }
+
+    /**
+     * @param operation Called method of Schema Registry client, like
+     * {@code getSchemaById}
+     * @param nanos Time spent by the call, even when it fails
+     * @param success {@code false} when the call has thrown
+     */
+    default void registryCalled(String operation, long nanos, boolean success) {
+    }
+
+    /**
+     * @param cache Name of internal cache: {@code id}, {@code version},
+     * {@code dataschema} or {@code reader}
+     * @param hit {@code true} when the entry was found
+     */
+    default void cacheAccessed(String cache, boolean hit) {
+    }
+
+    /**
+     * @param topic Topic of record
+     * @param type CloudEvent type, or {@code null} when unknown
+     * @param operation {@link #SERIALIZE} or {@link #DESERIALIZE}
+     * @param cause The error
+     */
+    default void failed(String topic, String type, String operation, Throwable cause) {
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.kattlo.cloudevents;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
+
+import lombok.Value;
+
+/**
+ * Routing table from CloudEvent type to the Avro data schema, the generated
+ * class to read it and, optionally, the subject to register it, built once
+ * from the configurations. So many types with different data schemas share
+ * the same topic and each record is routed by one lookup.
+ *
+ * @author fabiojose
+ */
+final class CloudEventTypes {
+
+    @Value
+    static class Route {
+        String type;
+        Schema schema;
+
+        /**
+         * Generated class of schema, or {@code null} when it was given as
+         * {@code .avsc}
+         */
+        Class<? extends SpecificRecord> readerClass;
+
+        /**
+         * Subject to register the schema, or {@code null} to use the
+         * subject name strategy
+         */
+        String subject;
+
+        /**
+         * @return {@code true} when the value was written with the schema of type
+         */
+        boolean accepts(IndexedRecord value) {
+            var valueSchema = value.getSchema();
+            return valueSchema == schema || valueSchema.equals(schema);
+        }
+    }
+
+    private final Map<String, Route> routes;
+
+    private CloudEventTypes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    /**
+     * @param name Name of configuration, to report errors
+     * @param types Generated class, class name or {@code .avsc} by type
+     * @param subjects Subject by type
+     * @throws IllegalArgumentException When some schema could not be loaded
+     * or there is subject for a type without schema
+     */
+    static CloudEventTypes of(String name, Map<String, Object> types, Map<String, Object> subjects) {
+
+        subjects.keySet().forEach(type -> {
+            if(!types.containsKey(type)){
+                throw new IllegalArgumentException(name + " has no schema for the type with subject: "
+                    + type);
+            }
+        });
+
+        var routes = new HashMap<String, Route>();
+        types.forEach((type, value) -> {
+            var schema = AvroSchemas.load(name, List.of(value)).get(0);
+
+            Class<? extends SpecificRecord> readerClass = null;
+            var schemaClass = SpecificData.get().getClass(schema);
+            if(null != schemaClass && SpecificRecord.class.isAssignableFrom(schemaClass)){
+                readerClass = schemaClass.asSubclass(SpecificRecord.class);
+            }
+
+            var subject = subjects.get(type);
+            routes.put(type, new Route(type, schema, readerClass,
+                null == subject ? null : subject.toString().trim()));
+        });
+
+        return new CloudEventTypes(Map.copyOf(routes));
+    }
+
+    Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    @Override
+    public String toString() {
+        return routes.keySet().toString();
+    }
+}
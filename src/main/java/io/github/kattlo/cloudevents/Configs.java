@@ -0,0 +1,177 @@
+package io.github.kattlo.cloudevents;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.kafka.common.Configurable;
+
+/**
+ * Helpers to read typed values from the raw Kafka configuration map.
+ *
+ * @author fabiojose
+ */
+final class Configs {
+
+    private Configs() {
+    }
+
+    static int intOf(Map<String, ?> configs, String name, int defaultValue) {
+
+        var value = configs.get(name);
+        if(value instanceof Number){
+            return ((Number)value).intValue();
+        } else if(value instanceof String){
+            return Integer.parseInt(((String)value).trim());
+        } else if(value != null){
+            throw new IllegalArgumentException(name + " can be of type String or " + Number.class.getCanonicalName());
+        }
+
+        return defaultValue;
+    }
+
+    static long longOf(Map<String, ?> configs, String name, long defaultValue) {
+
+        var value = configs.get(name);
+        if(value instanceof Number){
+            return ((Number)value).longValue();
+        } else if(value instanceof String){
+            return Long.parseLong(((String)value).trim());
+        } else if(value != null){
+            throw new IllegalArgumentException(name + " can be of type String or " + Number.class.getCanonicalName());
+        }
+
+        return defaultValue;
+    }
+
+    static boolean booleanOf(Map<String, ?> configs, String name, boolean defaultValue) {
+
+        var value = configs.get(name);
+        if(value instanceof Boolean){
+            return (Boolean)value;
+        } else if(value instanceof String){
+            return Boolean.parseBoolean(((String)value).trim());
+        } else if(value != null){
+            throw new IllegalArgumentException(name + " can be of type String or " + Boolean.class.getCanonicalName());
+        }
+
+        return defaultValue;
+    }
+
+    /**
+     * List configuration, given as {@link Collection} instance or as String
+     * with comma separated values.
+     */
+    static List<Object> listOf(Map<String, ?> configs, String name) {
+
+        var value = configs.get(name);
+        var result = new ArrayList<Object>();
+
+        if(value instanceof Collection){
+            result.addAll((Collection<?>)value);
+
+        } else if(value instanceof String){
+            for(String item : ((String)value).split(",")){
+                if(!item.isBlank()){
+                    result.add(item.trim());
+                }
+            }
+
+        } else if(value != null){
+            throw new IllegalArgumentException(name + " can be of type String or " + Collection.class.getCanonicalName());
+        }
+
+        return result;
+    }
+
+    /**
+     * Map configuration, given as {@link Map} instance or as String with
+     * comma separated {@code key=value} pairs.
+     */
+    static Map<String, Object> mapOf(Map<String, ?> configs, String name) {
+
+        var value = configs.get(name);
+        var result = new HashMap<String, Object>();
+
+        if(value instanceof Map){
+            ((Map<?, ?>)value).forEach((k, v) -> result.put(k.toString(), v));
+
+        } else if(value instanceof String){
+            for(String pair : ((String)value).split(",")){
+                if(pair.isBlank()){
+                    continue;
+                }
+
+                var separator = pair.lastIndexOf('=');
+                if(separator <= 0){
+                    throw new IllegalArgumentException(name + " must have key=value pairs: " + pair);
+                }
+                result.put(pair.substring(0, separator).trim(), pair.substring(separator + 1).trim());
+            }
+
+        } else if(value != null){
+            throw new IllegalArgumentException(name + " can be of type String or " + Map.class.getCanonicalName());
+        }
+
+        return result;
+    }
+
+    /**
+     * Instance configured by class name, {@link Class} or the instance itself.
+     * When it is {@link Configurable}, it receives the configurations.
+     */
+    static <T> T instanceOf(Map<String, ?> configs, String name, Class<T> type, T defaultValue) {
+
+        var value = configs.get(name);
+        if(null == value){
+            return defaultValue;
+        }
+
+        T result;
+        if(type.isInstance(value)){
+            result = type.cast(value);
+        } else {
+            var instanceClass = classOf(name, value, type);
+            try {
+                result = instanceClass.getDeclaredConstructor().newInstance();
+            }catch(ReflectiveOperationException e){
+                throw new IllegalArgumentException(name + " class must have a public no-args constructor: "
+                    + instanceClass.getName(), e);
+            }
+        }
+
+        if(result instanceof Configurable){
+            ((Configurable)result).configure(configs);
+        }
+
+        return result;
+    }
+
+    /**
+     * @param value Instance of {@link Class} or the class name
+     * @param type Expected super type of the class
+     */
+    static <T> Class<? extends T> classOf(String name, Object value, Class<T> type) {
+
+        Class<?> result;
+        if(value instanceof Class){
+            result = (Class<?>)value;
+        } else {
+            try {
+                result = Class.forName(value.toString().trim(), true,
+                    Thread.currentThread().getContextClassLoader());
+            }catch(ClassNotFoundException e){
+                throw new IllegalArgumentException(name + " class not found: " + value, e);
+            }
+        }
+
+        if(!type.isAssignableFrom(result)){
+            throw new IllegalArgumentException(name + " class must be an instance of "
+                + type.getName() + ": " + result.getName());
+        }
+
+        return result.asSubclass(type);
+    }
+}
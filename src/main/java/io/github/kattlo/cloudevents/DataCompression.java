@@ -0,0 +1,222 @@
+package io.github.kattlo.cloudevents;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+
+/**
+ * Per-record compression of the Avro payload. The wire format header, magic
+ * byte and schema id, is kept as is, so the schema id is still read without
+ * decompressing, and the rest is compressed with the codec signalled by the
+ * {@value #HEADER} header.
+ * <p>
+ * Deflate uses the JDK {@link Deflater}, in the zlib format with checksum.
+ * LZ4 and Zstandard write the standard frame formats, with lz4-java and
+ * zstd-jni, the same libraries of Kafka codecs. Deflaters, inflaters and
+ * buffers are reused per thread.
+ *
+ * @author fabiojose
+ */
+final class DataCompression {
+
+    static final String EXTENSION = "datacompression";
+    static final String HEADER = CloudEventHeadersReader.CE_PREFIX + EXTENSION;
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    enum Codec {
+        DEFLATE,
+        LZ4,
+        ZSTD;
+
+        private final String value;
+        private final Header header;
+
+        Codec() {
+            this.value = name().toLowerCase();
+            this.header = new CloudEventHeader(HEADER, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Header header() {
+            return header;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+
+        /**
+         * @throws IllegalArgumentException When the codec is not supported
+         */
+        static Codec of(String value) {
+            return valueOf(value.trim().toUpperCase());
+        }
+    }
+
+    private static final class Workspace {
+        final Deflater deflater = new Deflater();
+        final Inflater inflater = new Inflater();
+        final byte[] chunk = new byte[CHUNK_SIZE];
+        final AvroDataEncoder.Buffer buffer = new AvroDataEncoder.Buffer();
+    }
+
+    private static final ThreadLocal<Workspace> WORKSPACES =
+        ThreadLocal.withInitial(Workspace::new);
+
+    private DataCompression() {
+    }
+
+    /**
+     * @param bytes Payload in wire format
+     * @return Payload with the same header and compressed data
+     * @throws SerializationException When the payload could not be compressed
+     */
+    static byte[] compress(Codec codec, byte[] bytes) {
+
+        var workspace = WORKSPACES.get();
+        try {
+            if(codec == Codec.DEFLATE){
+                return deflate(workspace, bytes);
+            }
+
+            var buffer = workspace.buffer;
+            buffer.reset();
+            buffer.write(bytes, 0, WireFormat.HEADER_SIZE);
+
+            try(var stream = outputOf(codec, buffer)){
+                stream.write(bytes, WireFormat.HEADER_SIZE, bytes.length - WireFormat.HEADER_SIZE);
+            }
+
+            return buffer.toByteArray();
+
+        }catch(IOException | RuntimeException e){
+            throw new SerializationException("Error compressing with " + codec, e);
+        }
+    }
+
+    private static OutputStream outputOf(Codec codec, OutputStream output) throws IOException {
+        switch(codec){
+            case LZ4:
+                return new LZ4FrameOutputStream(output, LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB,
+                    LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE,
+                    LZ4FrameOutputStream.FLG.Bits.CONTENT_CHECKSUM);
+            case ZSTD:
+                return new ZstdOutputStream(output).setChecksum(true);
+            default:
+                throw new IllegalArgumentException("Not a stream codec: " + codec);
+        }
+    }
+
+    private static InputStream inputOf(Codec codec, InputStream input) throws IOException {
+        switch(codec){
+            case LZ4:
+                return new LZ4FrameInputStream(input);
+            case ZSTD:
+                return new ZstdInputStream(input);
+            default:
+                throw new IllegalArgumentException("Not a stream codec: " + codec);
+        }
+    }
+
+    private static byte[] deflate(Workspace workspace, byte[] bytes) {
+
+        var deflater = workspace.deflater;
+        var buffer = workspace.buffer;
+
+        deflater.reset();
+        deflater.setInput(bytes, WireFormat.HEADER_SIZE, bytes.length - WireFormat.HEADER_SIZE);
+        deflater.finish();
+
+        buffer.reset();
+        buffer.write(bytes, 0, WireFormat.HEADER_SIZE);
+        while(!deflater.finished()){
+            var count = deflater.deflate(workspace.chunk);
+            buffer.write(workspace.chunk, 0, count);
+        }
+
+        return buffer.toByteArray();
+    }
+
+    /**
+     * @param bytes Payload compressed by {@link #compress(Codec, byte[])}
+     * @param maxSize Maximum size of decompressed payload, in bytes
+     * @return Payload in wire format
+     * @throws SerializationException When the payload could not be
+     * decompressed or when it exceeds the maximum size
+     */
+    static byte[] decompress(Codec codec, byte[] bytes, int maxSize) {
+
+        if(bytes.length < WireFormat.HEADER_SIZE){
+            throw new SerializationException("Compressed payload without header: " + bytes.length);
+        }
+
+        var workspace = WORKSPACES.get();
+        var buffer = workspace.buffer;
+
+        buffer.reset();
+        buffer.write(bytes, 0, WireFormat.HEADER_SIZE);
+
+        // aborts as soon as the output exceeds, instead of inflating it all
+        buffer.limit(maxSize);
+        try {
+            if(codec == Codec.DEFLATE){
+                inflate(workspace, bytes);
+
+            } else {
+                var input = new ByteArrayInputStream(bytes, WireFormat.HEADER_SIZE,
+                    bytes.length - WireFormat.HEADER_SIZE);
+
+                try(var stream = inputOf(codec, input)){
+
+                    for(int count; (count = stream.read(workspace.chunk)) != -1;){
+                        buffer.write(workspace.chunk, 0, count);
+                    }
+                }
+            }
+
+            return buffer.toByteArray();
+
+        }catch(AvroDataEncoder.LimitExceededException e){
+            throw new SerializationException("Decompressed payload with " + codec
+                + " exceeds " + maxSize + " bytes");
+
+        }catch(IOException | DataFormatException | RuntimeException e){
+            throw new SerializationException("Error decompressing with " + codec, e);
+        } finally {
+            buffer.limit(Integer.MAX_VALUE);
+        }
+    }
+
+    private static void inflate(Workspace workspace, byte[] bytes) throws DataFormatException {
+
+        var inflater = workspace.inflater;
+        var buffer = workspace.buffer;
+
+        inflater.reset();
+        inflater.setInput(bytes, WireFormat.HEADER_SIZE, bytes.length - WireFormat.HEADER_SIZE);
+
+        while(!inflater.finished()){
+            var count = inflater.inflate(workspace.chunk);
+            if(count == 0 && !inflater.finished()
+                && (inflater.needsInput() || inflater.needsDictionary())){
+                throw new DataFormatException("truncated deflate data");
+            }
+            buffer.write(workspace.chunk, 0, count);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.kattlo.cloudevents;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.apache.kafka.common.Configurable;
+
+import io.cloudevents.CloudEvent;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ClaimCheckStore} in a local or shared directory, one file per
+ * payload at {@code <directory>/<topic>/<uuid>.avro}, referenced by its
+ * {@code file:} URI.
+ * <p>
+ * Files are written to a temporary one and then moved, so a reader never
+ * sees a partial payload. Only references within the directory are fetched.
+ * The files are not deleted, do it with the retention policy of directory.
+ *
+ * @author fabiojose
+ */
+@Slf4j
+public class FilesystemClaimCheckStore implements ClaimCheckStore, Configurable {
+
+    /**
+     * Directory of payloads, created when it does not exist
+     */
+    public static final String DIRECTORY_CONFIG = "cloudevents.avro.claimcheck.directory";
+    public static final String DIRECTORY_DEFAULT =
+        Path.of(System.getProperty("java.io.tmpdir"), "cloudevents-claimcheck").toString();
+
+    private static final String EXTENSION = ".avro";
+
+    private Path directory;
+
+    public FilesystemClaimCheckStore() {
+        this(Path.of(DIRECTORY_DEFAULT));
+    }
+
+    public FilesystemClaimCheckStore(Path directory) {
+        this.directory = directory.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+
+        var directoryConfig = configs.get(DIRECTORY_CONFIG);
+        if(null != directoryConfig){
+            directory = Path.of(directoryConfig.toString().trim()).toAbsolutePath().normalize();
+        }
+        log.debug("{}={}", DIRECTORY_CONFIG, directory);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public URI store(String topic, CloudEvent event, byte[] payload) throws IOException {
+
+        var parent = within(directory.resolve(Objects.requireNonNull(topic)));
+        Files.createDirectories(parent);
+
+        var file = parent.resolve(UUID.randomUUID() + EXTENSION);
+        var temp = Files.createTempFile(parent, null, null);
+        try {
+            Files.write(temp, payload);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+
+        }catch(IOException e){
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        log.debug("Payload of {} stored at {}", event.getId(), file);
+        return file.toUri();
+    }
+
+    @Override
+    public byte[] fetch(URI reference) throws IOException {
+
+        Path file;
+        try {
+            file = Path.of(reference);
+        }catch(IllegalArgumentException | FileSystemNotFoundException e){
+            throw new IOException("Claim check reference not supported: " + reference, e);
+        }
+
+        return Files.readAllBytes(within(file));
+    }
+
+    /**
+     * @throws IOException When the path is outside of directory
+     */
+    private Path within(Path path) throws IOException {
+
+        var normalized = path.toAbsolutePath().normalize();
+        if(normalized.equals(directory) || !normalized.startsWith(directory)){
+            throw new IOException("Claim check path outside of " + directory + ": " + path);
+        }
+
+        return normalized;
+    }
+}
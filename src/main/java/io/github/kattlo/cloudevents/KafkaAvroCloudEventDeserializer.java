@@ -1,33 +1,190 @@
 package io.github.kattlo.cloudevents;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
-import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.specific.SpecificRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
 
 import io.cloudevents.CloudEvent;
-import io.cloudevents.core.builder.CloudEventBuilder;
 import io.cloudevents.core.message.Encoding;
-import io.cloudevents.kafka.CloudEventDeserializer;
 import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
 import io.confluent.kafka.serializers.KafkaAvroDeserializer;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Just the {@link Encoding#BINARY} and Spec 1.0 are supported.
+ * The {@link Encoding#BINARY} and {@link Encoding#STRUCTURED} with Spec 1.0
+ * are supported. The mode is detected by the content-type header of each
+ * record: {@link AvroCloudEventData#STRUCTURED_MIME_TYPE} is structured.
+ * <p>
+ * Lazy decoding, retained bytes and reader classes apply just to the binary
+ * mode, because the structured payload carries the attributes too. For the
+ * same reason, structured records are decoded before the filter.
+ * <p>
+ * Payloads compressed by the serializer, signalled by the
+ * {@code ce_datacompression} header, are decompressed after the filter and
+ * before the decoding. The header is not an extension of the CloudEvent.
+ * <p>
+ * Payloads offloaded to the {@link ClaimCheckStore}, signalled by the
+ * {@code ce_claimcheck} header, are fetched just when the data is accessed.
  *
  * @author fabiojose
  */
 @Slf4j
 public class KafkaAvroCloudEventDeserializer extends KafkaAvroDeserializer {
 
-    private CloudEventDeserializer ce = new CloudEventDeserializer();
+    /**
+     * When {@code true}, the Avro data is decoded just in the first access to
+     * {@link AvroCloudEventData#getValue()}.
+     */
+    public static final String LAZY_DECODING_CONFIG = "cloudevents.avro.lazy.decoding";
+    public static final boolean LAZY_DECODING_DEFAULT = false;
+
+    /**
+     * When {@code true}, the {@link AvroCloudEventData} keeps the consumed
+     * payload, available through {@link AvroCloudEventData#toBytes()}.
+     * It is always kept in lazy decoding mode.
+     */
+    public static final String RETAIN_BYTES_CONFIG = "cloudevents.avro.retain.bytes";
+    public static final boolean RETAIN_BYTES_DEFAULT = false;
+
+    /**
+     * Maximum size, in bytes, of a decompressed payload. Past it the
+     * decompression aborts with {@link SerializationException}, guarding
+     * against small records that inflate to huge payloads.
+     */
+    public static final String MAX_DECOMPRESSED_BYTES_CONFIG = "cloudevents.avro.max.decompressed.bytes";
+    public static final int MAX_DECOMPRESSED_BYTES_DEFAULT = 64 * 1024 * 1024;
+
+    /**
+     * Generated {@link SpecificRecord} class to decode the data, by CloudEvent
+     * type. As {@link Map} instance or String with comma separated
+     * {@code type=class} pairs.
+     * <p>
+     * Types without mapping are decoded according to
+     * {@code specific.avro.reader}.
+     */
+    public static final String READER_CLASSES_CONFIG = "cloudevents.avro.reader.classes";
+
+    /**
+     * Projection reader schema to decode just some fields of data, by
+     * CloudEvent type, skipping the others. As {@link Map} instance or String
+     * with comma separated {@code type=projection} pairs. The projection is
+     * an {@code .avsc} file, in the file system or classpath, with a subset
+     * of data fields, or top-level field names separated by {@code ;}. Map
+     * values may be {@link org.apache.avro.Schema} or {@link java.util.Collection}
+     * of field names too.
+     * <p>
+     * Projected data is always {@link org.apache.avro.generic.GenericRecord}.
+     * A type can not have both reader schema and reader class.
+     */
+    public static final String READER_SCHEMAS_CONFIG = "cloudevents.avro.reader.schemas";
+
+    /**
+     * Avro data schema of each CloudEvent type, the same of serializer. Types
+     * of generated classes are decoded as them, the ones of {@code .avsc}
+     * files as {@link org.apache.avro.generic.GenericRecord} with that reader
+     * schema. A type can not be in {@link #READER_CLASSES_CONFIG} or
+     * {@link #READER_SCHEMAS_CONFIG} too.
+     */
+    public static final String TYPES_CONFIG = KafkaAvroCloudEventSerializer.TYPES_CONFIG;
+
+    private static final byte[] STRUCTURED_CONTENT_TYPE =
+        AvroCloudEventData.STRUCTURED_MIME_TYPE.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * {@link CloudEventMetrics} implementation, as class name, {@link Class}
+     * or instance. Default is {@link CloudEventMetrics#NOOP}.
+     */
+    public static final String METRICS_CLASS_CONFIG = KafkaAvroCloudEventSerializer.METRICS_CLASS_CONFIG;
+
+    /**
+     * Local {@link SchemaBundle} file, in the file system or classpath, with
+     * the writer schemas. The Schema Registry is called just for ids not in
+     * the bundle.
+     */
+    public static final String SCHEMA_BUNDLE_CONFIG = KafkaAvroCloudEventSerializer.SCHEMA_BUNDLE_CONFIG;
+
+    /**
+     * When {@code true}, the data is decoded by readers compiled per writer
+     * and reader schemas. Unsupported schemas fall back to the standard Avro
+     * readers.
+     */
+    public static final String FAST_CODERS_CONFIG = KafkaAvroCloudEventSerializer.FAST_CODERS_CONFIG;
+
+    /**
+     * Allowed CloudEvent types. As {@link java.util.Collection} instance or
+     * String with comma separated values.
+     */
+    public static final String FILTER_TYPES_CONFIG = "cloudevents.avro.filter.types";
+
+    /**
+     * Required prefix of CloudEvent source.
+     */
+    public static final String FILTER_SOURCE_PREFIX_CONFIG = "cloudevents.avro.filter.source.prefix";
+
+    /**
+     * Required extension values. As {@link Map} instance or String with comma
+     * separated {@code name=value} pairs.
+     */
+    public static final String FILTER_EXTENSIONS_CONFIG = "cloudevents.avro.filter.extensions";
+
+    /**
+     * {@link CloudEventFilter} implementation, as class name, {@link Class}
+     * or instance. When there are other filter configurations, all of them
+     * must accept.
+     */
+    public static final String FILTER_CLASS_CONFIG = "cloudevents.avro.filter.class";
+
+    /**
+     * {@link CloudEventFilter.Rejected} value returned for the records
+     * rejected by filters, without decoding the data.
+     */
+    public static final String FILTER_REJECTED_CONFIG = "cloudevents.avro.filter.rejected";
+    public static final CloudEventFilter.Rejected FILTER_REJECTED_DEFAULT =
+        CloudEventFilter.Rejected.ATTRIBUTES;
+
+    /**
+     * {@link ClaimCheckStore} implementation to fetch the offloaded payloads,
+     * as class name, {@link Class} or instance.
+     */
+    public static final String CLAIMCHECK_STORE_CONFIG = KafkaAvroCloudEventSerializer.CLAIMCHECK_STORE_CONFIG;
+
+    private boolean lazyDecoding = LAZY_DECODING_DEFAULT;
+    private boolean retainBytes = RETAIN_BYTES_DEFAULT;
+    private int maxDecompressedBytes = MAX_DECOMPRESSED_BYTES_DEFAULT;
+    private Map<String, Class<? extends SpecificRecord>> readerClasses = Map.of();
+    private Map<String, AvroProjection> projections = Map.of();
+
+    /**
+     * Decoding by CloudEvent type, of reader classes and projections
+     */
+    private Map<String, Function<byte[], IndexedRecord>> decodings = Map.of();
+    private AvroDataDecoder decoder;
+    private CloudEventMetrics metrics = CloudEventMetrics.NOOP;
+    private CloudEventFilter filter;
+    private CloudEventFilter.Rejected rejected = FILTER_REJECTED_DEFAULT;
+    private ClaimCheckStore claimCheck;
 
     public KafkaAvroCloudEventDeserializer() {
     }
 
+    /**
+     * Ready to use without {@link #configure(Map, boolean)}, like instances
+     * given to the {@code KafkaConsumer}, decoding as {@code GenericRecord}
+     */
     public KafkaAvroCloudEventDeserializer(SchemaRegistryClient registry) {
         super(registry);
+        decoder = new AvroDataDecoder(registry, super.useSpecificAvroReader);
     }
 
     @Override
@@ -35,22 +192,333 @@ public class KafkaAvroCloudEventDeserializer extends KafkaAvroDeserializer {
         log.debug("deserializer configurations {}", configs);
 
         super.configure(configs, isKey);
-        ce.configure(configs, isKey);
+
+        lazyDecoding = Configs.booleanOf(configs, LAZY_DECODING_CONFIG,
+            LAZY_DECODING_DEFAULT);
+        log.debug("{}={}", LAZY_DECODING_CONFIG, lazyDecoding);
+
+        retainBytes = Configs.booleanOf(configs, RETAIN_BYTES_CONFIG,
+            RETAIN_BYTES_DEFAULT);
+        log.debug("{}={}", RETAIN_BYTES_CONFIG, retainBytes);
+
+        maxDecompressedBytes = Configs.intOf(configs, MAX_DECOMPRESSED_BYTES_CONFIG,
+            MAX_DECOMPRESSED_BYTES_DEFAULT);
+        if(maxDecompressedBytes <= 0){
+            throw new IllegalArgumentException(MAX_DECOMPRESSED_BYTES_CONFIG
+                + " must be greater than zero: " + maxDecompressedBytes);
+        }
+        log.debug("{}={}", MAX_DECOMPRESSED_BYTES_CONFIG, maxDecompressedBytes);
+
+        var classes = new HashMap<String, Class<? extends SpecificRecord>>();
+        Configs.mapOf(configs, READER_CLASSES_CONFIG).forEach((type, readerClass) ->
+            classes.put(type, Configs.classOf(READER_CLASSES_CONFIG, readerClass, SpecificRecord.class)));
+
+        var readerSchemas = new HashMap<String, AvroProjection>();
+        Configs.mapOf(configs, READER_SCHEMAS_CONFIG).forEach((type, projection) -> {
+            if(classes.containsKey(type)){
+                throw new IllegalArgumentException(READER_SCHEMAS_CONFIG + " and "
+                    + READER_CLASSES_CONFIG + " for the same type: " + type);
+            }
+            readerSchemas.put(type, AvroProjection.of(READER_SCHEMAS_CONFIG, projection));
+        });
+
+        var types = CloudEventTypes.of(TYPES_CONFIG, Configs.mapOf(configs, TYPES_CONFIG), Map.of());
+        types.getRoutes().forEach((type, route) -> {
+            if(classes.containsKey(type) || readerSchemas.containsKey(type)){
+                throw new IllegalArgumentException(TYPES_CONFIG + " and "
+                    + READER_CLASSES_CONFIG + " or " + READER_SCHEMAS_CONFIG
+                    + " for the same type: " + type);
+            }
+
+            if(null != route.getReaderClass()){
+                classes.put(type, route.getReaderClass());
+            } else {
+                readerSchemas.put(type, AvroProjection.of(TYPES_CONFIG, route.getSchema()));
+            }
+        });
+        log.debug("{}={}", TYPES_CONFIG, types);
+
+        readerClasses = Map.copyOf(classes);
+        log.debug("{}={}", READER_CLASSES_CONFIG, readerClasses);
+
+        projections = Map.copyOf(readerSchemas);
+        log.debug("{}={}", READER_SCHEMAS_CONFIG, projections);
+
+        metrics = Configs.instanceOf(configs, METRICS_CLASS_CONFIG,
+            CloudEventMetrics.class, CloudEventMetrics.NOOP);
+        log.debug("{}={}", METRICS_CLASS_CONFIG, metrics);
+
+        var bundle = SchemaBundle.EMPTY;
+        var bundleLocation = configs.get(SCHEMA_BUNDLE_CONFIG);
+        if(null != bundleLocation){
+            bundle = SchemaBundle.load(SCHEMA_BUNDLE_CONFIG, bundleLocation.toString());
+            log.debug("{}={} {}", SCHEMA_BUNDLE_CONFIG, bundleLocation,
+                bundle.getEntries().size());
+        }
+
+        var fastCoders = Configs.booleanOf(configs, FAST_CODERS_CONFIG,
+            KafkaAvroCloudEventSerializer.FAST_CODERS_DEFAULT);
+        log.debug("{}={}", FAST_CODERS_CONFIG, fastCoders);
+
+        decoder = new AvroDataDecoder(super.schemaRegistry, super.useSpecificAvroReader,
+            metrics, bundle, fastCoders);
+
+        var typeDecodings = new HashMap<String, Function<byte[], IndexedRecord>>();
+        readerClasses.forEach((type, readerClass) ->
+            typeDecodings.put(type, payload -> decoder.decode(payload, readerClass)));
+        projections.forEach((type, projection) ->
+            typeDecodings.put(type, payload -> decoder.decode(payload, projection)));
+        decodings = Map.copyOf(typeDecodings);
+
+        filter = filterOf(configs);
+        log.debug("filter {}", filter);
+
+        var rejectedConfig = configs.get(FILTER_REJECTED_CONFIG);
+        if(rejectedConfig instanceof String){
+            rejected = CloudEventFilter.Rejected.valueOf(((String)rejectedConfig).trim().toUpperCase());
+        } else if(rejectedConfig instanceof CloudEventFilter.Rejected){
+            rejected = (CloudEventFilter.Rejected)rejectedConfig;
+        } else if(rejectedConfig != null){
+            throw new IllegalArgumentException(FILTER_REJECTED_CONFIG + " can be of type String or "
+                + CloudEventFilter.Rejected.class.getCanonicalName());
+        }
+        log.debug("{}={}", FILTER_REJECTED_CONFIG, rejected);
+
+        claimCheck = Configs.instanceOf(configs, CLAIMCHECK_STORE_CONFIG,
+            ClaimCheckStore.class, null);
+        log.debug("{}={}", CLAIMCHECK_STORE_CONFIG, claimCheck);
+    }
+
+    /**
+     * @return All the configured filters, or {@code null} when there is none
+     */
+    private static CloudEventFilter filterOf(Map<String, ?> configs) {
+
+        var filters = new ArrayList<CloudEventFilter>();
+
+        var types = Configs.listOf(configs, FILTER_TYPES_CONFIG);
+        if(!types.isEmpty()){
+            filters.add(CloudEventFilters.typeIn(types));
+        }
+
+        var sourcePrefix = configs.get(FILTER_SOURCE_PREFIX_CONFIG);
+        if(null != sourcePrefix){
+            filters.add(CloudEventFilters.sourceStartsWith(sourcePrefix.toString()));
+        }
+
+        var extensions = Configs.mapOf(configs, FILTER_EXTENSIONS_CONFIG);
+        if(!extensions.isEmpty()){
+            filters.add(CloudEventFilters.extensionsEqual(extensions));
+        }
+
+        var custom = Configs.instanceOf(configs, FILTER_CLASS_CONFIG,
+            CloudEventFilter.class, null);
+        if(null != custom){
+            filters.add(custom);
+        }
+
+        return filters.stream()
+            .reduce(CloudEventFilter::and)
+            .orElse(null);
     }
 
     @Override
     public CloudEvent deserialize(String topic, Headers headers, byte[] bytes) {
 
-        var value = super.deserialize(topic, headers, bytes);
-        var data = new AvroCloudEventData<GenericRecord>((GenericRecord)value);
+        if(metrics == CloudEventMetrics.NOOP){
+            return deserializeEvent(topic, headers, bytes);
+        }
 
-        var event = ce.deserialize(topic, headers, bytes);
+        var start = System.nanoTime();
+        try {
+            var event = deserializeEvent(topic, headers, bytes);
+            metrics.deserialized(topic, null == event ? typeOf(headers) : event.getType(),
+                System.nanoTime() - start, bytes.length, Metered.headerBytesOf(headers));
+
+            return event;
+        }catch(RuntimeException e){
+            metrics.failed(topic, typeOf(headers), CloudEventMetrics.DESERIALIZE, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking check of the caches, without decoding.
+     *
+     * @param bytes Payload in the Schema Registry wire format
+     * @return {@code true} when the payload is deserialized without calling
+     * the Schema Registry
+     */
+    boolean isResolved(byte[] bytes) {
+        if(null == bytes || bytes.length < WireFormat.HEADER_SIZE){
+            // it fails without calling the registry
+            return true;
+        }
+
+        return null != decoder && decoder.isPrepared(WireFormat.schemaIdOf(bytes));
+    }
+
+    private CloudEvent deserializeEvent(String topic, Headers headers, byte[] bytes) {
+
+        if(isStructured(headers)){
+            var event = AvroCloudEventEnvelope.eventOf(decoder.decode(decompressed(headers, bytes)));
+
+            return null == filter || filter.accept(event)
+                ? event
+                : rejectedOf(topic, event);
+        }
+
+        var schemaId = WireFormat.schemaIdOf(bytes);
+        Function<byte[], URI> dataschemas = value -> decoder.dataschemaOf(schemaId, value);
+
+        // filter by the headers, before any decoding
+        CloudEvent attributes = null;
+        if(null != filter){
+            attributes = CloudEventHeadersReader.read(headers, AvroCloudEventData.MIME_TYPE, null,
+                dataschemas);
+
+            if(!filter.accept(attributes)){
+                return rejectedOf(topic, attributes);
+            }
+        }
+
+        var decoding = decodingOf(null == attributes ? null : attributes.getType(), headers);
+        var reference = headers.lastHeader(ClaimCheckStore.HEADER);
+
+        AvroCloudEventData<IndexedRecord> data;
+        if(null != reference){
+            data = claimedOf(reference, schemaId, decoding);
+
+        } else if(lazyDecoding){
+            // decompressed just when the data is accessed
+            var codec = codecOf(headers);
+            data = null == codec
+                ? AvroCloudEventData.lazy(bytes, schemaId, decoding)
+                : AvroCloudEventData.lazy(() ->
+                    DataCompression.decompress(codec, bytes, maxDecompressedBytes),
+                    schemaId, decoding);
+
+        } else if(retainBytes){
+            var payload = decompressed(headers, bytes);
+            var value = decoding.apply(payload);
+            data = new AvroCloudEventData<>(value, payload, schemaId);
+
+        } else {
+            var value = decoding.apply(decompressed(headers, bytes));
+            data = new AvroCloudEventData<>(value);
+        }
+
+        return null == attributes
+            ? CloudEventHeadersReader.read(headers, AvroCloudEventData.MIME_TYPE, data, dataschemas)
+            : CloudEventHeadersReader.withData(attributes, AvroCloudEventData.MIME_TYPE, data);
+    }
+
+    /**
+     * Decompress the payload signalled by the ce_datacompression header
+     */
+    private byte[] decompressed(Headers headers, byte[] bytes) {
+        var codec = codecOf(headers);
+        return null == codec
+            ? bytes
+            : DataCompression.decompress(codec, bytes, maxDecompressedBytes);
+    }
+
+    /**
+     * @return The codec signalled by the ce_datacompression header, or
+     * {@code null} when the payload is not compressed
+     */
+    private static DataCompression.Codec codecOf(Headers headers) {
+
+        var compression = headers.lastHeader(DataCompression.HEADER);
+        if(null == compression){
+            return null;
+        }
+
+        var value = new String(compression.value(), StandardCharsets.UTF_8);
+        try {
+            return DataCompression.Codec.of(value);
+
+        }catch(IllegalArgumentException e){
+            throw new SerializationException(DataCompression.HEADER + "=" + value
+                + " not supported", e);
+        }
+    }
+
+    /**
+     * Data fetched from the claim-check store just when it is accessed
+     */
+    private AvroCloudEventData<IndexedRecord> claimedOf(Header header, int schemaId,
+        Function<byte[], IndexedRecord> decoding) {
+
+        var value = new String(header.value(), StandardCharsets.UTF_8);
+        if(null == claimCheck){
+            throw new SerializationException(ClaimCheckStore.HEADER + "=" + value
+                + " without " + CLAIMCHECK_STORE_CONFIG);
+        }
+
+        URI reference;
+        try {
+            reference = URI.create(value);
+        }catch(IllegalArgumentException e){
+            throw new SerializationException(ClaimCheckStore.HEADER + "=" + value
+                + " is not a valid URI", e);
+        }
+
+        var store = claimCheck;
+        return AvroCloudEventData.claimed(reference, () -> {
+            try {
+                return store.fetch(reference);
+            }catch(IOException e){
+                throw new SerializationException("Error fetching the payload from " + reference, e);
+            }
+        }, schemaId, decoding);
+    }
+
+    private CloudEvent rejectedOf(String topic, CloudEvent event) {
+        log.debug("CloudEvent rejected by filter {} {}", event.getType(), event.getId());
+        metrics.filtered(topic, event.getType());
+
+        if(rejected == CloudEventFilter.Rejected.NULL){
+            return null;
+        }
+
+        return null == event.getData()
+            ? event
+            : CloudEventHeadersReader.withData(event, event.getDataContentType(), null);
+    }
+
+    private static boolean isStructured(Headers headers) {
+
+        var contentType = headers.lastHeader(CloudEventHeadersReader.CONTENT_TYPE_HEADER);
+        return null != contentType
+            && Arrays.equals(STRUCTURED_CONTENT_TYPE, contentType.value());
+    }
+
+    /**
+     * @param type CloudEvent type, or {@code null} to read it from headers
+     * @return Decoding with the projection or reader class of type
+     */
+    private Function<byte[], IndexedRecord> decodingOf(String type, Headers headers) {
+
+        if(decodings.isEmpty()){
+            return decoder::decode;
+        }
+
+        if(null == type){
+            type = typeOf(headers);
+        }
+
+        var decoding = null == type ? null : decodings.get(type);
+        return null != decoding
+            ? decoding
+            : decoder::decode;
+    }
 
-        var result = CloudEventBuilder
-            .from(event)
-            .withData(AvroCloudEventData.MIME_TYPE, data)
-            .build();
+    private static String typeOf(Headers headers) {
 
-        return result;
+        var type = headers.lastHeader(CloudEventHeadersReader.TYPE_HEADER);
+        return null == type || null == type.value()
+            ? null
+            : new String(type.value(), StandardCharsets.UTF_8);
     }
 }
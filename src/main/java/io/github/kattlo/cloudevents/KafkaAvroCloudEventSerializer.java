@@ -1,27 +1,72 @@
 package io.github.kattlo.cloudevents;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 
+import org.apache.avro.Schema;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificRecord;
 import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
 
 import io.cloudevents.CloudEvent;
+import io.cloudevents.SpecVersion;
 import io.cloudevents.core.message.Encoding;
 import io.cloudevents.kafka.CloudEventSerializer;
 import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
 import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
 import io.confluent.kafka.schemaregistry.client.rest.entities.SchemaReference;
 import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
 import io.confluent.kafka.serializers.KafkaAvroSerializer;
 import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
 import io.confluent.kafka.serializers.subject.strategy.SubjectNameStrategy;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Just the {@link Encoding#BINARY} and Spec 1.0 are supported.
+ * The {@link Encoding#BINARY} and {@link Encoding#STRUCTURED} with Spec 1.0
+ * are supported.
+ * <p>
+ * In structured mode the whole CloudEvent is written as Avro record, using
+ * a compact envelope schema that nests the data schema. Its content-type is
+ * {@link AvroCloudEventData#STRUCTURED_MIME_TYPE}.
+ * <p>
+ * Configured as {@code key.serializer}, it writes the record key derived
+ * from the {@link #KEY_ATTRIBUTES_CONFIG} of the same CloudEvent, as Avro
+ * or raw bytes, and no headers.
+ * <p>
+ * Payloads above the {@link #MAX_PAYLOAD_BYTES_CONFIG} are detected while
+ * encoding, and rejected or offloaded to a {@link ClaimCheckStore}.
+ * <p>
+ * Types mapped by {@link #TYPES_CONFIG} are routed to their schema and
+ * subject, resolved once per topic, and their data is validated against the
+ * schema of type.
+ * <p>
+ * Of the inherited {@link KafkaAvroSerializerConfig}, {@code use.latest.version}
+ * and {@code avro.remove.java.properties} are honored, while
+ * {@code avro.reflection.allow.null} is rejected: the data is always an
+ * {@link IndexedRecord}, never written by reflection.
+ * <p>
+ * In binary mode, the {@code datacompression} and {@code claimcheck}
+ * extensions are rejected, because their headers are reserved to signal the
+ * compressed and offloaded payloads.
  *
  * @author fabiojose
  */
@@ -30,8 +75,260 @@ public class KafkaAvroCloudEventSerializer extends KafkaAvroSerializer {
 
     public static final String DATASCHEMA_HEADER = "ce_dataschema";
 
+    /**
+     * Extensions whose ce_* headers signal how the payload was transported,
+     * so they are not available to the events in binary mode
+     */
+    static final List<String> RESERVED_EXTENSIONS =
+        List.of(DataCompression.EXTENSION, ClaimCheckStore.EXTENSION);
+
+    /**
+     * Maximum number of subject and schema id pairs to keep the resolved
+     * schema version. It bounds the tables of resolved schema ids and
+     * ce_dataschema headers too.
+     */
+    public static final String VERSION_CACHE_SIZE_CONFIG = "cloudevents.avro.version.cache.size";
+    public static final int VERSION_CACHE_SIZE_DEFAULT = 1000;
+
+    /**
+     * Time-to-live, in milliseconds, of resolved schema versions, schema ids
+     * and ce_dataschema headers. After that they are fetched again from
+     * Schema Registry. Use {@code 0} to never expire.
+     */
+    public static final String VERSION_CACHE_TTL_MS_CONFIG = "cloudevents.avro.version.cache.ttl.ms";
+    public static final long VERSION_CACHE_TTL_MS_DEFAULT = 300000;
+
+    /**
+     * When {@code true}, {@link AvroCloudEventData} holding the raw payload,
+     * like the ones consumed in lazy decoding mode, is written verbatim,
+     * without decoding and encoding it again. Just the ce_* headers are
+     * written and the ce_dataschema is resolved by schema id.
+     */
+    public static final String PASSTHROUGH_CONFIG = "cloudevents.avro.passthrough";
+    public static final boolean PASSTHROUGH_DEFAULT = false;
+
+    /**
+     * Maximum number of repeated attribute and extension values, per name, to
+     * keep the encoded header and share it among records. Use {@code 0} to
+     * disable.
+     */
+    public static final String HEADER_INTERN_SIZE_CONFIG = "cloudevents.avro.header.intern.size";
+    public static final int HEADER_INTERN_SIZE_DEFAULT = 1000;
+
+    /**
+     * Topics to preload, during {@link #configure(Map, boolean)}, the schemas
+     * of {@link #PRELOAD_SCHEMAS_CONFIG}. As {@link Collection} instance or
+     * String with comma separated values.
+     */
+    public static final String PRELOAD_TOPICS_CONFIG = "cloudevents.avro.preload.topics";
+
+    /**
+     * Schemas to register, or just resolve the id according to
+     * {@code auto.register.schemas}, and to resolve the ce_dataschema, in
+     * parallel, for each preload topic. Generated {@link SpecificRecord}
+     * classes, {@code .avsc} files, in the file system or classpath, or
+     * directories with {@code .avsc} files, like {@code src/main/avro}.
+     * <p>
+     * Preload failures of Schema Registry are logged and the schemas are
+     * resolved on demand.
+     */
+    public static final String PRELOAD_SCHEMAS_CONFIG = "cloudevents.avro.preload.schemas";
+
+    /**
+     * Maximum number of parallel Schema Registry calls while preloading during
+     * {@link #configure(Map, boolean)}.
+     */
+    public static final String PRELOAD_PARALLELISM_CONFIG = "cloudevents.avro.preload.parallelism";
+    public static final int PRELOAD_PARALLELISM_DEFAULT = 4;
+
+    /**
+     * Local {@link SchemaBundle} file, in the file system or classpath, used
+     * as authoritative source of schema ids and versions. The Schema Registry
+     * is called just for schemas not in the bundle.
+     */
+    public static final String SCHEMA_BUNDLE_CONFIG = "cloudevents.avro.schema.bundle";
+
+    /**
+     * {@link CloudEventMetrics} implementation, as class name, {@link Class}
+     * or instance. Default is {@link CloudEventMetrics#NOOP}.
+     */
+    public static final String METRICS_CLASS_CONFIG = "cloudevents.avro.metrics.class";
+
+    /**
+     * When {@code true}, generated {@link SpecificRecord} classes are written
+     * by their generated encoder, that writes the fields directly, and the
+     * deserializer reads with readers compiled per schema. Unsupported
+     * schemas fall back to the standard Avro path.
+     */
+    public static final String FAST_CODERS_CONFIG = "cloudevents.avro.fast.coders";
+    public static final boolean FAST_CODERS_DEFAULT = false;
+
+    /**
+     * CloudEvent types whose payload is compressed, and the codec of each
+     * one: {@code deflate}, {@code lz4} or {@code zstd}. As {@link Map}
+     * instance or String with comma separated {@code type=codec} pairs.
+     * <p>
+     * The codec is signalled by the {@code ce_datacompression} header and the
+     * {@link KafkaAvroCloudEventDeserializer} decompresses it transparently.
+     */
+    public static final String COMPRESSION_TYPES_CONFIG = "cloudevents.avro.compression.types";
+
+    /**
+     * Minimum size, in bytes, of the payload to compress. Compressed payloads
+     * that are not smaller are written as is.
+     */
+    public static final String COMPRESSION_THRESHOLD_BYTES_CONFIG =
+        "cloudevents.avro.compression.threshold.bytes";
+    public static final int COMPRESSION_THRESHOLD_BYTES_DEFAULT = 16 * 1024;
+
+    /**
+     * Maximum size, in bytes, of the encoded payload, before compression. The
+     * encoding is aborted as soon as the payload exceeds it, failing with
+     * {@link SerializationException} or offloading the data to the
+     * {@link #CLAIMCHECK_STORE_CONFIG}. {@code 0} disables it.
+     * <p>
+     * In structured mode the whole envelope is limited and never offloaded.
+     */
+    public static final String MAX_PAYLOAD_BYTES_CONFIG = "cloudevents.avro.max.payload.bytes";
+    public static final int MAX_PAYLOAD_BYTES_DEFAULT = 0;
+
+    /**
+     * Implementation of {@link ClaimCheckStore} to offload the data of events
+     * above the {@link #CLAIMCHECK_THRESHOLD_BYTES_CONFIG}, writing just its
+     * reference. As class name, {@link Class} or the instance.
+     */
+    public static final String CLAIMCHECK_STORE_CONFIG = "cloudevents.avro.claimcheck.store.class";
+
+    /**
+     * Size, in bytes, of the encoded payload to offload to the claim-check
+     * store. {@code 0} to offload the ones above the {@link #MAX_PAYLOAD_BYTES_CONFIG}.
+     */
+    public static final String CLAIMCHECK_THRESHOLD_BYTES_CONFIG =
+        "cloudevents.avro.claimcheck.threshold.bytes";
+    public static final int CLAIMCHECK_THRESHOLD_BYTES_DEFAULT = 0;
+
+    /**
+     * Avro data schema of each CloudEvent type, as generated class, class
+     * name or {@code .avsc} file. As {@link Map} instance or String with comma
+     * separated {@code type=schema} pairs.
+     * <p>
+     * The data of mapped types must be written with that schema, otherwise
+     * the serialization fails. The schema id and ce_dataschema are resolved
+     * once per type and topic, also for the {@link #PRELOAD_TOPICS_CONFIG}
+     * during configure.
+     */
+    public static final String TYPES_CONFIG = "cloudevents.avro.types";
+
+    /**
+     * Subject to register the schema of some {@link #TYPES_CONFIG}, instead of
+     * the subject name strategy. As {@link Map} instance or String with comma
+     * separated {@code type=subject} pairs.
+     */
+    public static final String TYPE_SUBJECTS_CONFIG = "cloudevents.avro.type.subjects";
+
+    /**
+     * In key mode, the CloudEvent attributes or extensions that compose the
+     * record key, like {@code subject}, {@code source} or the
+     * {@code partitionkey} extension. As {@link Collection} instance or String
+     * with comma separated values.
+     */
+    public static final String KEY_ATTRIBUTES_CONFIG = "cloudevents.avro.key.attributes";
+    public static final String KEY_ATTRIBUTES_DEFAULT = "partitionkey";
+
+    /**
+     * In key mode, the {@link KeyFormat} of record key.
+     */
+    public static final String KEY_FORMAT_CONFIG = "cloudevents.avro.key.format";
+    public static final KeyFormat KEY_FORMAT_DEFAULT = KeyFormat.AVRO;
+
+    /**
+     * How the record key is written in key mode
+     */
+    public enum KeyFormat {
+
+        /**
+         * Schema Registry wire format: Avro {@code string} for one attribute,
+         * or a record with one optional string field per attribute. The key
+         * schema is registered within the key subject.
+         */
+        AVRO,
+
+        /**
+         * UTF-8 bytes of values, joined by {@code :}
+         */
+        RAW
+    }
+
+    /**
+     * Inherited options of {@link KafkaAvroSerializerConfig}, read here
+     * because the data is not written by {@link KafkaAvroSerializer#serialize(String, Object)}
+     */
+    static final String USE_LATEST_VERSION_CONFIG = "use.latest.version";
+    static final String AVRO_REMOVE_JAVA_PROPS_CONFIG = "avro.remove.java.properties";
+    static final String AVRO_REFLECTION_ALLOW_NULL_CONFIG = "avro.reflection.allow.null";
+
+    private static final Header CONTENT_TYPE_STRUCTURED = new CloudEventHeader(
+        CloudEventHeadersReader.CONTENT_TYPE_HEADER,
+        AvroCloudEventData.STRUCTURED_MIME_TYPE.getBytes(StandardCharsets.UTF_8));
+
     private final CloudEventSerializer ce = new CloudEventSerializer();
+    private Encoding encoding;
     private String schemaRegistryUrl;
+    private boolean passthrough = PASSTHROUGH_DEFAULT;
+    private CloudEventMetrics metrics = CloudEventMetrics.NOOP;
+    private SchemaBundle bundle = SchemaBundle.EMPTY;
+    private CloudEventHeadersWriter headersWriter =
+        new CloudEventHeadersWriter(HEADER_INTERN_SIZE_DEFAULT);
+    private BoundedCache<VersionKey, Integer> versions;
+
+    private AvroDataEncoder encoder = new AvroDataEncoder();
+
+    private Map<String, DataCompression.Codec> compressions = Map.of();
+    private int compressionThreshold = COMPRESSION_THRESHOLD_BYTES_DEFAULT;
+
+    private int maxPayloadBytes = MAX_PAYLOAD_BYTES_DEFAULT;
+    private ClaimCheckStore claimCheck;
+
+    /**
+     * Size of payload to offload or reject, the smaller of the enabled ones
+     */
+    private int payloadLimit = Integer.MAX_VALUE;
+
+    /**
+     * Route of each mapped CloudEvent type, with its resolution by topic
+     */
+    private Map<String, TypeRoute> routes = Map.of();
+
+    private boolean isKey;
+    private CloudEventKeys keys;
+    private KeyFormat keyFormat = KEY_FORMAT_DEFAULT;
+
+    private boolean useLatestVersion;
+    private boolean removeJavaProperties;
+
+    private int cacheSize = VERSION_CACHE_SIZE_DEFAULT;
+    private Duration cacheTtl = Duration.ofMillis(VERSION_CACHE_TTL_MS_DEFAULT);
+
+    /**
+     * Schema ids by topic and value schema
+     */
+    private BoundedCache<SchemaKey, Integer> ids = cacheOf();
+
+    /**
+     * Ready to use ce_dataschema headers by topic, value type and schema id,
+     * so many generic schemas in one topic do not share the entry
+     */
+    private BoundedCache<TypeKey, DataSchema> dataschemas = cacheOf();
+
+    /**
+     * Ready to use ce_dataschema headers by topic and id of raw payload schema
+     */
+    private BoundedCache<SchemaIdKey, DataSchema> rawDataschemas = cacheOf();
+
+    /**
+     * Writer schemas by id, with {@code use.latest.version}
+     */
+    private BoundedCache<Integer, Schema> writers = cacheOf();
 
     public KafkaAvroCloudEventSerializer() {
     }
@@ -59,44 +356,869 @@ public class KafkaAvroCloudEventSerializer extends KafkaAvroSerializer {
 
     @Override
     public void configure(Map<String, ?> configs, boolean isKey) {
-        var encoding = encodingOf(configs);
+        encoding = encodingOf(configs);
+        this.isKey = isKey;
 
-        if(encoding == Encoding.BINARY){
+        if(isKey || encoding == Encoding.BINARY || encoding == Encoding.STRUCTURED){
 
             super.configure(configs, isKey);
-            ce.configure(configs, isKey);
+            if(!isKey && encoding == Encoding.BINARY){
+                ce.configure(configs, isKey);
+            }
 
             schemaRegistryUrl = (String)
                 configs.get(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG);
 
             log.debug("{}={}", KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
-                schemaRegistryUrl);;
+                schemaRegistryUrl);
+
+            cacheSize = Configs.intOf(configs, VERSION_CACHE_SIZE_CONFIG,
+                VERSION_CACHE_SIZE_DEFAULT);
+            cacheTtl = Duration.ofMillis(Configs.longOf(configs, VERSION_CACHE_TTL_MS_CONFIG,
+                VERSION_CACHE_TTL_MS_DEFAULT));
+
+            versions = cacheOf();
+            ids = cacheOf();
+            dataschemas = cacheOf();
+            rawDataschemas = cacheOf();
+            writers = cacheOf();
+
+            if(Configs.booleanOf(configs, AVRO_REFLECTION_ALLOW_NULL_CONFIG, false)){
+                throw new IllegalArgumentException(AVRO_REFLECTION_ALLOW_NULL_CONFIG
+                    + " not supported, the data is always written as " + IndexedRecord.class.getName());
+            }
+
+            useLatestVersion = Configs.booleanOf(configs, USE_LATEST_VERSION_CONFIG, false);
+            removeJavaProperties = Configs.booleanOf(configs, AVRO_REMOVE_JAVA_PROPS_CONFIG, false);
+            log.debug("{}={} {}={}", USE_LATEST_VERSION_CONFIG, useLatestVersion,
+                AVRO_REMOVE_JAVA_PROPS_CONFIG, removeJavaProperties);
+
+            passthrough = Configs.booleanOf(configs, PASSTHROUGH_CONFIG, PASSTHROUGH_DEFAULT);
+            log.debug("{}={}", PASSTHROUGH_CONFIG, passthrough);
+
+            headersWriter = new CloudEventHeadersWriter(
+                Configs.intOf(configs, HEADER_INTERN_SIZE_CONFIG, HEADER_INTERN_SIZE_DEFAULT));
+
+            metrics = Configs.instanceOf(configs, METRICS_CLASS_CONFIG,
+                CloudEventMetrics.class, CloudEventMetrics.NOOP);
+            log.debug("{}={}", METRICS_CLASS_CONFIG, metrics);
+
+            var fastCoders = Configs.booleanOf(configs, FAST_CODERS_CONFIG, FAST_CODERS_DEFAULT);
+            encoder = new AvroDataEncoder(fastCoders);
+            log.debug("{}={}", FAST_CODERS_CONFIG, fastCoders);
+
+            var codecs = new HashMap<String, DataCompression.Codec>();
+            Configs.mapOf(configs, COMPRESSION_TYPES_CONFIG).forEach((type, codec) ->
+                codecs.put(type, codecOf(codec)));
+            compressions = Map.copyOf(codecs);
+            compressionThreshold = Configs.intOf(configs, COMPRESSION_THRESHOLD_BYTES_CONFIG,
+                COMPRESSION_THRESHOLD_BYTES_DEFAULT);
+            log.debug("{}={} {}={}", COMPRESSION_TYPES_CONFIG, compressions,
+                COMPRESSION_THRESHOLD_BYTES_CONFIG, compressionThreshold);
+
+            configurePayloadLimit(configs);
+
+            var types = CloudEventTypes.of(TYPES_CONFIG, Configs.mapOf(configs, TYPES_CONFIG),
+                Configs.mapOf(configs, TYPE_SUBJECTS_CONFIG));
+            var typeRoutes = new HashMap<String, TypeRoute>();
+            types.getRoutes().forEach((type, route) ->
+                typeRoutes.put(type, new TypeRoute(route, cacheOf())));
+            routes = Map.copyOf(typeRoutes);
+            log.debug("{}={}", TYPES_CONFIG, types);
+
+            var bundleLocation = configs.get(SCHEMA_BUNDLE_CONFIG);
+            if(null != bundleLocation){
+                bundle = SchemaBundle.load(SCHEMA_BUNDLE_CONFIG, bundleLocation.toString());
+                log.debug("{}={} {}", SCHEMA_BUNDLE_CONFIG, bundleLocation,
+                    bundle.getEntries().size());
+            }
+
+            if(isKey){
+                configureKey(configs);
+            } else {
+                preload(configs);
+            }
 
         } else {
             throw new IllegalArgumentException(CloudEventSerializer.ENCODING_CONFIG + "=" + encoding + " not supported");
         }
     }
 
+    /**
+     * @return Cache with the configured size and time-to-live
+     */
+    private <K, V> BoundedCache<K, V> cacheOf() {
+        return new BoundedCache<>(cacheSize, cacheTtl);
+    }
+
+    private static DataCompression.Codec codecOf(Object codec) {
+        try {
+            return DataCompression.Codec.of(codec.toString());
+
+        }catch(IllegalArgumentException e){
+            throw new IllegalArgumentException(COMPRESSION_TYPES_CONFIG
+                + " codec not supported: " + codec, e);
+        }
+    }
+
+    private void configurePayloadLimit(Map<String, ?> configs) {
+
+        maxPayloadBytes = Configs.intOf(configs, MAX_PAYLOAD_BYTES_CONFIG,
+            MAX_PAYLOAD_BYTES_DEFAULT);
+        claimCheck = Configs.instanceOf(configs, CLAIMCHECK_STORE_CONFIG,
+            ClaimCheckStore.class, null);
+        var claimCheckThreshold = Configs.intOf(configs, CLAIMCHECK_THRESHOLD_BYTES_CONFIG,
+            CLAIMCHECK_THRESHOLD_BYTES_DEFAULT);
+
+        payloadLimit = Integer.MAX_VALUE;
+        if(maxPayloadBytes > 0){
+            payloadLimit = maxPayloadBytes;
+        }
+        if(null != claimCheck && claimCheckThreshold > 0){
+            payloadLimit = Math.min(payloadLimit, claimCheckThreshold);
+        }
+
+        log.debug("{}={} {}={} {}={}", MAX_PAYLOAD_BYTES_CONFIG, maxPayloadBytes,
+            CLAIMCHECK_STORE_CONFIG, claimCheck, CLAIMCHECK_THRESHOLD_BYTES_CONFIG,
+            claimCheckThreshold);
+    }
+
+    private void configureKey(Map<String, ?> configs) {
+
+        var attributes = new ArrayList<String>();
+        var attributesConfig = configs.containsKey(KEY_ATTRIBUTES_CONFIG)
+            ? Configs.listOf(configs, KEY_ATTRIBUTES_CONFIG)
+            : List.<Object>of(KEY_ATTRIBUTES_DEFAULT);
+        attributesConfig.forEach(attribute -> attributes.add(attribute.toString().trim()));
+
+        keys = new CloudEventKeys(attributes);
+        log.debug("{}={}", KEY_ATTRIBUTES_CONFIG, keys.getAttributes());
+
+        var formatConfig = configs.get(KEY_FORMAT_CONFIG);
+        if(formatConfig instanceof String){
+            keyFormat = KeyFormat.valueOf(((String)formatConfig).trim().toUpperCase());
+        } else if(formatConfig instanceof KeyFormat){
+            keyFormat = (KeyFormat)formatConfig;
+        } else if(formatConfig != null){
+            throw new IllegalArgumentException(KEY_FORMAT_CONFIG + " can be of type String or "
+                + KeyFormat.class.getCanonicalName());
+        }
+        log.debug("{}={}", KEY_FORMAT_CONFIG, keyFormat);
+    }
+
+    private void preload(Map<String, ?> configs) {
+
+        var topics = Configs.listOf(configs, PRELOAD_TOPICS_CONFIG);
+        var schemas = AvroSchemas.load(PRELOAD_SCHEMAS_CONFIG,
+            Configs.listOf(configs, PRELOAD_SCHEMAS_CONFIG));
+
+        if(topics.isEmpty() || (schemas.isEmpty() && routes.isEmpty())){
+            return;
+        }
+
+        var parallelism = Configs.intOf(configs, PRELOAD_PARALLELISM_CONFIG,
+            PRELOAD_PARALLELISM_DEFAULT);
+
+        var executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism,
+            topics.size() * (schemas.size() + routes.size()))));
+        try {
+            var preloading = new ArrayList<CompletableFuture<Void>>();
+            for(Object topic : topics){
+                preloading.add(preloadAsync(topic.toString(), schemas, executor));
+
+                // the routes of types too
+                for(TypeRoute route : routes.values()){
+                    preloading.add(CompletableFuture.runAsync(() ->
+                        resolvedOf(topic.toString(), route), executor));
+                }
+            }
+
+            CompletableFuture.allOf(preloading.toArray(CompletableFuture[]::new))
+                .join();
+
+            log.debug("Schemas preloaded {} {}", topics, schemas.size());
+
+        }catch(CompletionException e){
+            log.warn("Schemas preload failed, resolving them on demand: {}",
+                e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Warm-up the schema ids, versions and ce_dataschema headers used to
+     * serialize values of the schemas to the topic, so the next serializations
+     * do not touch the Schema Registry.
+     *
+     * @param topic Topic to produce the events
+     * @param schemas Schemas of CloudEvent data
+     * @param executor To run the Schema Registry calls, one task per schema
+     * @return Completes when all the schemas were preloaded, or exceptionally
+     * with {@link SerializationException} when some has failed
+     * @throws IllegalStateException When the serializer is not configured
+     */
+    public CompletableFuture<Void> preloadAsync(String topic, Collection<Schema> schemas,
+        Executor executor) {
+
+        if(null == versions){
+            throw new IllegalStateException("Serializer not configured");
+        }
+
+        return CompletableFuture.allOf(schemas.stream()
+            .map(schema -> CompletableFuture.runAsync(() -> preload(topic, schema), executor))
+            .toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Like {@link #preloadAsync(String, Collection, Executor)}, running in
+     * the {@link ForkJoinPool#commonPool()}.
+     */
+    public CompletableFuture<Void> preloadAsync(String topic, Collection<Schema> schemas) {
+        return preloadAsync(topic, schemas, ForkJoinPool.commonPool());
+    }
+
+    private void preload(String topic, Schema schema) {
+
+        var strategy = (SubjectNameStrategy)super.valueSubjectNameStrategy;
+        var subjectName = strategy.subjectName(topic, Boolean.FALSE, new AvroSchema(schema));
+
+        try {
+            var schemaId = schemaIdOf(topic, schema);
+
+            // the ce_dataschema table is by value type, just known for generated classes
+            var valueType = SpecificData.get().getClass(schema);
+            if(null != valueType){
+                dataschemaOf(topic, valueType, schema, schemaId);
+            } else {
+                versionOf(subjectName, schemaId, schema);
+            }
+
+            log.debug("Schema preloaded {} {} {}", topic, subjectName, schemaId);
+
+        }catch(IOException | RestClientException e){
+            throw new SerializationException("Error preloading Avro schema: " + schema.getFullName(), e);
+        }
+    }
+
     @Override
     public byte[] serialize(String topic, Headers headers, Object event) {
+        if(isKey && null == event){
+            return null;
+        }
+
         if( !(event instanceof CloudEvent)){
             throw new IllegalArgumentException("event argument must be an instance of " + CloudEvent.class);
         }
 
         final var ceEvent = (CloudEvent)event;
 
-        ce.serialize(topic, headers, ceEvent);
-        log.debug("CloudEvent headers {}", headers);
+        if(isKey){
+            return serializeKey(topic, ceEvent);
+        }
+
+        if(metrics == CloudEventMetrics.NOOP){
+            return compressed(headers, ceEvent.getType(),
+                serializeEvent(topic, headers, ceEvent));
+        }
+
+        var start = System.nanoTime();
+        try {
+            var bytes = compressed(headers, ceEvent.getType(),
+                serializeEvent(topic, headers, ceEvent));
+            metrics.serialized(topic, ceEvent.getType(), System.nanoTime() - start,
+                bytes.length, Metered.headerBytesOf(headers));
+
+            return bytes;
+        }catch(RuntimeException e){
+            metrics.failed(topic, ceEvent.getType(), CloudEventMetrics.SERIALIZE, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking check of the caches, that follows the same path of
+     * {@link #serialize(String, Headers, Object)} without encoding.
+     *
+     * @return {@code true} when the event is serialized without calling the
+     * Schema Registry, because its schema id and ce_dataschema are cached
+     */
+    boolean isResolved(String topic, CloudEvent event) {
+
+        if(isKey){
+            return keyFormat == KeyFormat.RAW || isResolved(topic, keys.getSchema());
+        }
+
+        if(!(event.getData() instanceof AvroCloudEventData)){
+            // it fails without calling the registry
+            return true;
+        }
+
+        var data = (AvroCloudEventData<?>)event.getData();
+        if(encoding == Encoding.BINARY && passthrough && data.hasBytes()){
+            return null != rawDataschemas.get(new SchemaIdKey(topic, data.getSchemaId()));
+        }
+
+        if(!data.isDecoded()){
+            // decoding may fetch the writer schema
+            return false;
+        }
+
+        var value = data.getValue();
+        if(encoding == Encoding.STRUCTURED){
+            return isResolved(topic, AvroCloudEventEnvelope.schemaOf(value.getSchema()));
+        }
+
+        var route = routes.get(event.getType());
+        if(null != route){
+            var resolved = route.topics.get(topic);
+            return null != resolved && isWriterResolved(resolved.schemaId);
+        }
+
+        var schemaId = ids.get(new SchemaKey(topic, value.getSchema()));
+        if(null == schemaId || !isWriterResolved(schemaId)){
+            return false;
+        }
+
+        return null != dataschemas.get(new TypeKey(topic, value.getClass(), schemaId));
+    }
+
+    private boolean isResolved(String topic, Schema schema) {
+        var schemaId = ids.get(new SchemaKey(topic, schema));
+        return null != schemaId && isWriterResolved(schemaId);
+    }
+
+    private boolean isWriterResolved(int schemaId) {
+        return !useLatestVersion || null != writers.get(schemaId);
+    }
+
+    /**
+     * Compress the payload when its type is configured and it is above the
+     * threshold, keeping the compressed one just when it is smaller
+     */
+    private byte[] compressed(Headers headers, String type, byte[] bytes) {
+
+        headers.remove(DataCompression.HEADER);
+
+        if(bytes.length < compressionThreshold || compressions.isEmpty()){
+            return bytes;
+        }
+
+        var codec = compressions.get(type);
+        if(null == codec){
+            return bytes;
+        }
+
+        var compressed = DataCompression.compress(codec, bytes);
+        log.debug("Payload compressed with {} from {} to {}", codec, bytes.length,
+            compressed.length);
+
+        if(compressed.length >= bytes.length){
+            return bytes;
+        }
+
+        headers.add(codec.header());
+        return compressed;
+    }
+
+    /**
+     * Write the key from the configured attributes, registering its schema
+     * once per topic
+     */
+    private byte[] serializeKey(String topic, CloudEvent event) {
 
+        if(keyFormat == KeyFormat.RAW){
+            return keys.rawOf(event);
+        }
+
+        var key = keys.valueOf(event);
+        log.debug("key to serialize as avro {}", key);
+
+        if(null == key){
+            return null;
+        }
+
+        var schemaId = schemaIdOf(topic, keys.getSchema());
+        return encoder.encode(schemaId, writerOf(schemaId, keys.getSchema()), key);
+    }
+
+    private byte[] serializeEvent(String topic, Headers headers, CloudEvent ceEvent) {
+
+        if(encoding == Encoding.STRUCTURED){
+            return serializeStructured(topic, headers, ceEvent);
+        }
+
+        writeHeaders(topic, headers, ceEvent);
+        log.debug("CloudEvent headers {}", headers);
 
         if(ceEvent.getData() instanceof AvroCloudEventData) {
             var data = (AvroCloudEventData<?>)ceEvent.getData();
+
+            if(passthrough && data.hasBytes()){
+                return serializeRaw(topic, headers, ceEvent, data);
+            }
+
             var value = data.getValue();
-            var valueType = value.getClass();
             log.debug("value to serialize as avro {}", value);
 
+            var route = routeOf(ceEvent, value);
+            if(null != route){
+                var resolved = resolvedOf(topic, route);
+                var bytes = encodeData(topic, headers, ceEvent, resolved.schemaId, value);
+
+                headers.remove(DATASCHEMA_HEADER);
+                headers.add(resolved.dataschema);
+
+                return bytes;
+            }
+
             // serialize CloudEvent data and register the schema
-            var bytes = super.serialize(topic, headers, data.getValue());
+            var schemaId = schemaIdOf(topic, value.getSchema());
+            var bytes = encodeData(topic, headers, ceEvent, schemaId, value);
+
+            var dataschema = dataschemaOf(topic, value.getClass(), value.getSchema(), schemaId);
+            log.debug("{}={}", DATASCHEMA_HEADER, dataschema);
+
+            headers.remove(DATASCHEMA_HEADER);
+            headers.add(dataschema);
+
+            return bytes;
+
+        } else {
+            throw new IllegalArgumentException("CloudEvent data attribute must be an instance of "
+                + AvroCloudEventData.class.getName());
+        }
+    }
+
+    /**
+     * Serialize a batch of CloudEvents to the same topic, resolving the schema
+     * id and ce_dataschema once per distinct data schema.
+     * <p>
+     * Events written in {@link Encoding#STRUCTURED} mode or verbatim in
+     * passthrough mode are serialized one by one, like {@link #serialize(String, Headers, Object)}.
+     *
+     * @param topic Topic to produce the events
+     * @param events CloudEvents with {@link AvroCloudEventData}
+     * @return Headers and value of each event, in the same order
+     * @see SerializedCloudEvent#toProducerRecord(String, Object)
+     */
+    public List<SerializedCloudEvent> serializeAll(String topic, List<? extends CloudEvent> events) {
+
+        if(isKey){
+            throw new IllegalStateException("serializeAll is not supported in key mode");
+        }
+
+        var result = new ArrayList<SerializedCloudEvent>(events.size());
+        var types = new HashMap<Schema, BatchType>();
+
+        for(CloudEvent event : events){
+            Headers headers = new RecordHeaders();
+
+            if(encoding == Encoding.STRUCTURED
+                || !(event.getData() instanceof AvroCloudEventData)
+                || (passthrough && ((AvroCloudEventData<?>)event.getData()).hasBytes())){
+
+                result.add(new SerializedCloudEvent(headers, serialize(topic, headers, event)));
+                continue;
+            }
+
+            var start = System.nanoTime();
+            byte[] bytes;
+            try {
+                writeHeaders(topic, headers, event);
+
+                var value = ((AvroCloudEventData<?>)event.getData()).getValue();
+                var route = routeOf(event, value);
+                var type = null != route
+                    ? resolvedOf(topic, route)
+                    : types.computeIfAbsent(value.getSchema(), schema ->
+                        batchTypeOf(topic, value));
+
+                bytes = compressed(headers, event.getType(),
+                    encodeData(topic, headers, event, type.schemaId, value));
+
+                headers.remove(DATASCHEMA_HEADER);
+                headers.add(type.dataschema);
+
+            }catch(RuntimeException e){
+                metrics.failed(topic, event.getType(), CloudEventMetrics.SERIALIZE, e);
+                throw e;
+            }
+
+            if(metrics != CloudEventMetrics.NOOP){
+                metrics.serialized(topic, event.getType(), System.nanoTime() - start,
+                    bytes.length, Metered.headerBytesOf(headers));
+            }
+
+            result.add(new SerializedCloudEvent(headers, bytes));
+        }
+
+        return result;
+    }
+
+    /**
+     * Encode the data enforcing the payload limit, aborting as soon as it is
+     * exceeded instead of encoding the whole value before checking its size
+     */
+    private byte[] encodeData(String topic, Headers headers, CloudEvent event, int schemaId,
+        IndexedRecord value) {
+
+        headers.remove(ClaimCheckStore.HEADER);
+        var schema = writerOf(schemaId, value.getSchema());
+        if(payloadLimit == Integer.MAX_VALUE){
+            return encoder.encode(schemaId, schema, value);
+        }
+
+        try {
+            return encoder.encode(schemaId, schema, value, payloadLimit);
+
+        }catch(AvroDataEncoder.LimitExceededException e){
+            if(null == claimCheck){
+                throw exceeded(event);
+            }
+
+            // encode the whole value just to store it
+            return offloaded(topic, headers, event, encoder.encode(schemaId, schema, value));
+        }
+    }
+
+    private SerializationException exceeded(CloudEvent event) {
+        return new SerializationException("Payload of CloudEvent id=" + event.getId()
+            + " type=" + event.getType() + " exceeds " + payloadLimit + " bytes");
+    }
+
+    /**
+     * Store the payload above the limit, writing its reference header and
+     * just the wire format header as payload, to keep the schema id
+     *
+     * @throws SerializationException When there is no claim-check store
+     */
+    private byte[] offloaded(String topic, Headers headers, CloudEvent event, byte[] bytes) {
+
+        if(null == claimCheck){
+            throw exceeded(event);
+        }
+
+        try {
+            var reference = claimCheck.store(topic, event, bytes);
+            log.debug("Payload of {} bytes offloaded to {}", bytes.length, reference);
+
+            headers.add(new CloudEventHeader(ClaimCheckStore.HEADER,
+                reference.toString().getBytes(StandardCharsets.UTF_8)));
+
+            return Arrays.copyOf(bytes, WireFormat.HEADER_SIZE);
+
+        }catch(IOException e){
+            throw new SerializationException("Error storing the payload of CloudEvent id="
+                + event.getId(), e);
+        }
+    }
+
+    /**
+     * @return The route of event type, or {@code null} when it is not mapped
+     * @throws IllegalArgumentException When the data was not written with the
+     * schema of type
+     */
+    private TypeRoute routeOf(CloudEvent event, IndexedRecord value) {
+
+        if(routes.isEmpty()){
+            return null;
+        }
+
+        var route = routes.get(event.getType());
+        if(null != route && !route.route.accepts(value)){
+            throw new IllegalArgumentException("CloudEvent type " + event.getType()
+                + " must have data of " + route.route.getSchema().getFullName()
+                + ", not " + value.getSchema().getFullName());
+        }
+
+        return route;
+    }
+
+    /**
+     * Get the schema id and ce_dataschema of type within the topic, resolving
+     * them just when the topic is new for the type
+     */
+    private BatchType resolvedOf(String topic, TypeRoute route) {
+
+        var resolved = route.topics.get(topic);
+        metrics.cacheAccessed("route", null != resolved);
+
+        if(null == resolved){
+            var schema = route.route.getSchema();
+            var parsed = registeredOf(schema);
+
+            var subjectName = route.route.getSubject();
+            if(null == subjectName){
+                var strategy = (SubjectNameStrategy)super.valueSubjectNameStrategy;
+                subjectName = strategy.subjectName(topic, Boolean.FALSE, parsed);
+            }
+            log.debug("SubjectName {} of type {}", subjectName, route.route.getType());
+
+            try {
+                var schemaId = writerIdOf(subjectName, parsed);
+                var version = versionOf(subjectName, schemaId, schema);
+
+                resolved = new BatchType(schemaId, dataschemaHeaderOf(subjectName, version));
+                route.topics.put(topic, resolved);
+
+            }catch(IOException | RestClientException e){
+                throw new SerializationException("Error registering Avro schema of type "
+                    + route.route.getType() + ": " + subjectName, e);
+            }
+        }
+
+        return resolved;
+    }
+
+    /**
+     * Write the ce_* headers, using the interning writer for Spec 1.0 events
+     *
+     * @throws SerializationException When the event has a reserved extension
+     */
+    private void writeHeaders(String topic, Headers headers, CloudEvent event) {
+
+        for(String reserved : RESERVED_EXTENSIONS){
+            if(null != event.getExtension(reserved)){
+                throw new SerializationException("Extension " + reserved + " of CloudEvent id="
+                    + event.getId() + " is reserved to the " + CloudEventHeadersReader.CE_PREFIX
+                    + reserved + " transport header, use another name");
+            }
+        }
+
+        if(event.getSpecVersion() == SpecVersion.V1){
+            headersWriter.write(event, headers);
+        } else {
+            ce.serialize(topic, headers, event);
+        }
+    }
+
+    private BatchType batchTypeOf(String topic, IndexedRecord value) {
+
+        var schemaId = schemaIdOf(topic, value.getSchema());
+        return new BatchType(schemaId,
+            dataschemaOf(topic, value.getClass(), value.getSchema(), schemaId));
+    }
+
+    /**
+     * Resolve, as the {@link KafkaAvroSerializer} does, the schema id of value,
+     * or key in key mode, within its subject, hitting the bundle or Schema
+     * Registry only when the pair topic and schema is new.
+     */
+    private int schemaIdOf(String topic, Schema schema) {
+
+        var key = new SchemaKey(topic, schema);
+        var schemaId = ids.get(key);
+        metrics.cacheAccessed("id", null != schemaId);
+
+        if(null == schemaId){
+            var parsed = registeredOf(schema);
+            var strategy = (SubjectNameStrategy)(isKey
+                ? super.keySubjectNameStrategy
+                : super.valueSubjectNameStrategy);
+            var subjectName = strategy.subjectName(topic, isKey, parsed);
+
+            try {
+                schemaId = writerIdOf(subjectName, parsed);
+                ids.put(key, schemaId);
+
+            }catch(IOException | RestClientException e){
+                throw new SerializationException("Error registering Avro schema: " + schema, e);
+            }
+        }
+
+        return schemaId;
+    }
+
+    private byte[] serializeStructured(String topic, Headers headers, CloudEvent event) {
+
+        if(event.getData() instanceof AvroCloudEventData) {
+            var value = ((AvroCloudEventData<?>)event.getData()).getValue();
+            routeOf(event, value);
+
+            var envelope = AvroCloudEventEnvelope.envelopeOf(event, value);
+            log.debug("envelope to serialize as avro {}", envelope);
+
+            headers.remove(CloudEventHeadersReader.CONTENT_TYPE_HEADER);
+            headers.add(CONTENT_TYPE_STRUCTURED);
+
+            // serialize the envelope and register its schema
+            var schemaId = schemaIdOf(topic, envelope.getSchema());
+            var schema = writerOf(schemaId, envelope.getSchema());
+            if(maxPayloadBytes <= 0){
+                return encoder.encode(schemaId, schema, envelope);
+            }
+
+            try {
+                return encoder.encode(schemaId, schema, envelope, maxPayloadBytes);
+
+            }catch(AvroDataEncoder.LimitExceededException e){
+                throw new SerializationException("CloudEvent id=" + event.getId()
+                    + " type=" + event.getType() + " exceeds " + maxPayloadBytes + " bytes", e);
+            }
+
+        } else {
+            throw new IllegalArgumentException("CloudEvent data attribute must be an instance of "
+                + AvroCloudEventData.class.getName());
+        }
+    }
+
+    /**
+     * Write the raw payload as is, just patching the schema id when the subject
+     * of target topic has another id for the same schema.
+     */
+    private byte[] serializeRaw(String topic, Headers headers, CloudEvent event,
+        AvroCloudEventData<?> data) {
+
+        var bytes = data.toBytes();
+        var schemaId = WireFormat.schemaIdOf(bytes);
+
+        var dataschema = rawDataschemaOf(topic, schemaId);
+        log.debug("{}={}", DATASCHEMA_HEADER, dataschema.header);
+
+        headers.remove(DATASCHEMA_HEADER);
+        headers.add(dataschema.header);
+
+        if(dataschema.schemaId != schemaId){
+            bytes = bytes.clone();
+            WireFormat.writeSchemaId(bytes, dataschema.schemaId);
+        }
+
+        headers.remove(ClaimCheckStore.HEADER);
+        if(bytes.length > payloadLimit){
+            return offloaded(topic, headers, event, bytes);
+        }
+
+        return bytes;
+    }
+
+    /**
+     * Get the ce_dataschema header for the raw payload schema id, fetching the
+     * schema to resolve the subject and version just when it is new.
+     */
+    private DataSchema rawDataschemaOf(String topic, int schemaId) {
+
+        var key = new SchemaIdKey(topic, schemaId);
+        var dataschema = rawDataschemas.get(key);
+        metrics.cacheAccessed("dataschema", null != dataschema);
+
+        if(null == dataschema){
+            try {
+                var bundled = bundle.schemaOf(schemaId);
+                var schema = null != bundled
+                    ? new AvroSchema(bundled)
+                    : Metered.registry(metrics, "getSchemaById", () ->
+                        super.schemaRegistry.getSchemaById(schemaId));
+
+                var strategy = (SubjectNameStrategy)super.valueSubjectNameStrategy;
+                var subjectName = strategy.subjectName(topic, Boolean.FALSE, schema);
+                log.debug("SubjectName {}", subjectName);
+
+                var targetId = idOf(subjectName, schema);
+
+                var version = versionOf(subjectName, targetId, (Schema)schema.rawSchema());
+                log.debug("Schema versionId {}", version);
+
+                dataschema = new DataSchema(targetId, dataschemaHeaderOf(subjectName, version));
+                rawDataschemas.put(key, dataschema);
+
+            }catch(IOException | RestClientException e){
+                throw new SerializationException(e.getMessage(), e);
+            }
+        }
+
+        return dataschema;
+    }
+
+    /**
+     * Register or just get the id of schema within the subject, according to
+     * {@code auto.register.schemas}
+     */
+    private int idOf(String subjectName, ParsedSchema schema)
+        throws IOException, RestClientException {
+
+        var bundled = bundle.idOf(subjectName, (Schema)schema.rawSchema());
+        if(null != bundled){
+            return bundled;
+        }
+
+        return super.autoRegisterSchema
+            ? Metered.registry(metrics, "register", () ->
+                super.schemaRegistry.register(subjectName, schema))
+            : Metered.registry(metrics, "getId", () ->
+                super.schemaRegistry.getId(subjectName, schema));
+    }
+
+    /**
+     * Id of the schema to write the data: the latest one of subject with
+     * {@code use.latest.version}, or the id of schema itself
+     */
+    private int writerIdOf(String subjectName, ParsedSchema schema)
+        throws IOException, RestClientException {
+
+        if(useLatestVersion){
+            return Metered.registry(metrics, "getLatestSchemaMetadata", () ->
+                super.schemaRegistry.getLatestSchemaMetadata(subjectName)).getId();
+        }
+
+        return idOf(subjectName, schema);
+    }
+
+    /**
+     * Schema to write the data with the id: the registered one with
+     * {@code use.latest.version}, otherwise the schema of value itself
+     */
+    private Schema writerOf(int schemaId, Schema schema) {
+
+        if(!useLatestVersion){
+            return schema;
+        }
+
+        var writer = writers.get(schemaId);
+        if(null == writer){
+            writer = bundle.schemaOf(schemaId);
+            if(null == writer){
+                try {
+                    writer = (Schema)Metered.registry(metrics, "getSchemaById", () ->
+                        super.schemaRegistry.getSchemaById(schemaId)).rawSchema();
+
+                }catch(IOException | RestClientException e){
+                    throw new SerializationException("Error fetching Avro schema id=" + schemaId, e);
+                }
+            }
+            writers.put(schemaId, writer);
+        }
+
+        return writer;
+    }
+
+    /**
+     * @return The schema as registered, without the Java properties with
+     * {@code avro.remove.java.properties}
+     */
+    private ParsedSchema registeredOf(Schema schema) {
+        return new AvroSchema(removeJavaProperties
+            ? AvroSchemas.withoutJavaProperties(schema)
+            : schema);
+    }
+
+    private Header dataschemaHeaderOf(String subjectName, int version) {
+
+        var uri = schemaRegistryUrl + "/subjects/" + subjectName + "/versions/" + version + "/schema";
+        return new CloudEventHeader(DATASCHEMA_HEADER, uri.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the ce_dataschema header from the table, computing it just when the
+     * topic, value type and schema id are new.
+     */
+    private Header dataschemaOf(String topic, Class<?> valueType, Schema schema, int schemaId) {
+
+        var key = new TypeKey(topic, valueType, schemaId);
+        var dataschema = dataschemas.get(key);
+        metrics.cacheAccessed("dataschema", null != dataschema);
+
+        if(null == dataschema){
 
             // use the strategy to create the subject name
             var strategy = (SubjectNameStrategy)super.valueSubjectNameStrategy;
@@ -105,30 +1227,107 @@ public class KafkaAvroCloudEventSerializer extends KafkaAvroSerializer {
             var subjectName = strategy.subjectName(topic, Boolean.FALSE,
                 new NoSchema(valueType.getPackageName(), valueType.getSimpleName()));
 
-            log.info("SubjectName {}", subjectName);
+            log.debug("SubjectName {}", subjectName);
 
             // get the versionId of registered schema
             try {
-                var versions = super.schemaRegistry.getAllVersions(subjectName);
-                var version = versions.get(versions.size() -1);
+                var version = versionOf(subjectName, schemaId, schema);
                 log.debug("Schema versionId {}", version);
 
-                var dataschema = schemaRegistryUrl + "/subjects/" + subjectName + "/versions/" + version + "/schema";
-                log.debug("{}={}", DATASCHEMA_HEADER, dataschema);
+                dataschema = new DataSchema(schemaId, dataschemaHeaderOf(subjectName, version));
 
-                headers.remove(DATASCHEMA_HEADER);
-                headers.add(DATASCHEMA_HEADER, dataschema.getBytes());
+                dataschemas.put(key, dataschema);
 
             }catch(IOException | RestClientException e){
                 throw new SerializationException(e.getMessage(), e);
             }
+        }
 
-            return bytes;
+        return dataschema.header;
+    }
 
-        } else {
-            throw new IllegalArgumentException("CloudEvent data attribute must be an instance of "
-                + AvroCloudEventData.class.getName());
+    /**
+     * Resolve the version of schema within the subject, hitting the Schema
+     * Registry only when the pair subject and schema id was not seen before.
+     */
+    private int versionOf(String subject, int schemaId, Schema schema)
+        throws IOException, RestClientException {
+
+        var key = new VersionKey(subject, schemaId);
+        var version = versions.get(key);
+        metrics.cacheAccessed("version", null != version);
+
+        if(null == version){
+            version = bundle.versionOf(subject, schemaId);
+        }
+
+        if(null == version){
+            var registered = registeredOf(writerOf(schemaId, schema));
+            version = Metered.registry(metrics, "getVersion", () ->
+                super.schemaRegistry.getVersion(subject, registered));
+            log.debug("Schema version resolved {} {}", key, version);
+
+            versions.put(key, version);
         }
+
+        return version;
+    }
+
+    private static final class DataSchema {
+
+        private final int schemaId;
+        private final Header header;
+
+        DataSchema(int schemaId, Header header) {
+            this.schemaId = schemaId;
+            this.header = header;
+        }
+    }
+
+    private static final class TypeRoute {
+
+        private final CloudEventTypes.Route route;
+
+        /**
+         * Schema id and ce_dataschema by topic
+         */
+        private final BoundedCache<String, BatchType> topics;
+
+        TypeRoute(CloudEventTypes.Route route, BoundedCache<String, BatchType> topics) {
+            this.route = route;
+            this.topics = topics;
+        }
+    }
+
+    @Value
+    private static class BatchType {
+        int schemaId;
+        Header dataschema;
+    }
+
+    @Value
+    private static class SchemaKey {
+        String topic;
+        Schema schema;
+    }
+
+    @Value
+    private static class TypeKey {
+        String topic;
+        Class<?> valueType;
+        int schemaId;
+    }
+
+    @Value
+    private static class SchemaIdKey {
+        String topic;
+        int schemaId;
+    }
+
+    @Value
+    private static class VersionKey {
+        String subject;
+        int schemaId;
     }
 
     private static final class NoSchema implements ParsedSchema {
@@ -0,0 +1,57 @@
+package io.github.kattlo.cloudevents;
+
+import java.io.IOException;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+
+/**
+ * Helpers to report to {@link CloudEventMetrics}, doing no extra work when it
+ * is the {@link CloudEventMetrics#NOOP}.
+ *
+ * @author fabiojose
+ */
+final class Metered {
+
+    @FunctionalInterface
+    interface RegistryCall<T> {
+        T call() throws IOException, RestClientException;
+    }
+
+    private Metered() {
+    }
+
+    static <T> T registry(CloudEventMetrics metrics, String operation, RegistryCall<T> call)
+        throws IOException, RestClientException {
+
+        if(metrics == CloudEventMetrics.NOOP){
+            return call.call();
+        }
+
+        var start = System.nanoTime();
+        var success = false;
+        try {
+            var result = call.call();
+            success = true;
+
+            return result;
+        } finally {
+            metrics.registryCalled(operation, System.nanoTime() - start, success);
+        }
+    }
+
+    static int headerBytesOf(Headers headers) {
+
+        var result = 0;
+        for(Header header : headers){
+            result += header.key().length();
+            if(null != header.value()){
+                result += header.value().length;
+            }
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,371 @@
+package io.github.kattlo.cloudevents;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Applies a codec to each element, emitting the results in the same order.
+ * <p>
+ * The codec may block on the Schema Registry when its caches do not have
+ * the schema of element, so such element runs in the executor and the others
+ * with the same key wait for it. Elements the codec resolves from its caches
+ * run in the signalling thread, because that is CPU only. As the caches
+ * expire or evict, the elements of that key go to the executor again.
+ * Elements without key always run in the signalling thread.
+ * <ul>
+ *   <li>up to {@code maxInFlight} keys are resolved at same time</li>
+ *   <li>up to {@code bufferSize} elements are requested from upstream
+ *   ahead of the downstream demand</li>
+ *   <li>results {@code null} are dropped</li>
+ *   <li>the first failure, in element order, cancels the upstream and is
+ *   signalled to the downstream after the results before it</li>
+ * </ul>
+ * Only one subscriber is supported.
+ *
+ * @param <T> The type of element
+ * @param <R> The type of result
+ * @author fabiojose
+ */
+@Slf4j
+final class OrderedCodecProcessor<T, R> implements Flow.Processor<T, R>, Flow.Subscription {
+
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+
+    private static final class Slot<T, R> {
+        final T element;
+        final Object key;
+        volatile int state = NEW;
+        R result;
+        Throwable failure;
+
+        Slot(T element, Object key) {
+            this.element = element;
+            this.key = key;
+        }
+    }
+
+    private final Function<T, Object> keyOf;
+    private final Predicate<T> resolved;
+    private final Function<T, R> codec;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final int bufferSize;
+    private final int replenish;
+
+    private final Set<Object> resolving = ConcurrentHashMap.newKeySet();
+    private final Queue<Slot<T, R>> incoming = new ConcurrentLinkedQueue<>();
+    private final Queue<Slot<T, R>> emitting = new ConcurrentLinkedQueue<>();
+
+    // only touched by the drain loop
+    private final Queue<Slot<T, R>> waiting = new ArrayDeque<>();
+    private int consumed;
+    private boolean terminated;
+
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicReference<Flow.Subscriber<? super R>> downstream = new AtomicReference<>();
+    private final AtomicReference<Flow.Subscription> upstream = new AtomicReference<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private volatile boolean upstreamDone;
+    private volatile Throwable upstreamFailure;
+    private volatile Throwable requestFailure;
+    private volatile boolean cancelled;
+
+    /**
+     * @param keyOf Key of schema of element, or {@code null} when the codec
+     * does not need the registry
+     * @param resolved Non-blocking check of the codec caches, {@code true}
+     * when the codec applies to the element without calling the registry
+     * @param codec Function to apply, it may block when the element is not resolved
+     * @param executor To resolve the keys
+     * @param maxInFlight Maximum of keys resolved at same time
+     * @param bufferSize Maximum of elements requested ahead of the demand
+     */
+    OrderedCodecProcessor(Function<T, Object> keyOf, Predicate<T> resolved,
+        Function<T, R> codec, Executor executor, int maxInFlight, int bufferSize) {
+
+        this.keyOf = Objects.requireNonNull(keyOf);
+        this.resolved = Objects.requireNonNull(resolved);
+        this.codec = Objects.requireNonNull(codec);
+        this.executor = Objects.requireNonNull(executor);
+
+        if(maxInFlight <= 0){
+            throw new IllegalArgumentException("maxInFlight must be greater than 0: " + maxInFlight);
+        }
+        if(bufferSize <= 0){
+            throw new IllegalArgumentException("bufferSize must be greater than 0: " + bufferSize);
+        }
+
+        this.maxInFlight = maxInFlight;
+        this.bufferSize = bufferSize;
+        this.replenish = Math.max(1, bufferSize / 2);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super R> subscriber) {
+        Objects.requireNonNull(subscriber);
+
+        if(!downstream.compareAndSet(null, subscriber)){
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Only one subscriber is supported"));
+            return;
+        }
+
+        subscriber.onSubscribe(this);
+        start();
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        Objects.requireNonNull(subscription);
+
+        if(!upstream.compareAndSet(null, subscription)){
+            subscription.cancel();
+            return;
+        }
+
+        start();
+    }
+
+    private void start() {
+        // both sides are ready, once
+        if(null != downstream.get() && null != upstream.get()
+            && started.compareAndSet(false, true)){
+
+            upstream.get().request(bufferSize);
+        }
+    }
+
+    @Override
+    public void onNext(T element) {
+        Object key;
+        try {
+            key = keyOf.apply(element);
+        }catch(RuntimeException e){
+            // the codec fails the same way, in order
+            key = null;
+        }
+
+        incoming.offer(new Slot<>(element, key));
+        drain();
+    }
+
+    @Override
+    public void onError(Throwable failure) {
+        upstreamFailure = failure;
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        if(n <= 0){
+            requestFailure = new IllegalArgumentException("Request must be greater than 0: " + n);
+            drain();
+            return;
+        }
+
+        requested.accumulateAndGet(n, (current, more) ->
+            current + more < 0 ? Long.MAX_VALUE : current + more);
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+        var subscription = upstream.get();
+        if(null != subscription){
+            subscription.cancel();
+        }
+        drain();
+    }
+
+    private void run(Slot<T, R> slot) {
+        try {
+            slot.result = codec.apply(slot.element);
+        }catch(Throwable e){
+            slot.failure = e;
+        }
+        slot.state = DONE;
+    }
+
+    private void resolve(Slot<T, R> slot) {
+        slot.state = RUNNING;
+        resolving.add(slot.key);
+
+        log.debug("Resolving in the executor {}", slot.key);
+
+        try {
+            executor.execute(() -> {
+                run(slot);
+                resolving.remove(slot.key);
+                drain();
+            });
+
+        }catch(RejectedExecutionException e){
+            slot.failure = e;
+            slot.state = DONE;
+            resolving.remove(slot.key);
+        }
+    }
+
+    private void drain() {
+        if(wip.getAndIncrement() != 0){
+            return;
+        }
+
+        int missed = 1;
+        do {
+            if(null != requestFailure && !terminated){
+                terminated = true;
+                var subscription = upstream.get();
+                if(null != subscription){
+                    subscription.cancel();
+                }
+                downstream.get().onError(requestFailure);
+            }
+
+            if(cancelled){
+                terminated = true;
+            }
+
+            if(terminated){
+                incoming.clear();
+                waiting.clear();
+                emitting.clear();
+
+            } else {
+                for(Slot<T, R> slot; null != (slot = incoming.poll());){
+                    emitting.offer(slot);
+                    waiting.offer(slot);
+                }
+
+                startWaiting();
+                emit();
+            }
+
+            missed = wip.addAndGet(-missed);
+        } while(missed != 0);
+    }
+
+    private void startWaiting() {
+
+        for(Iterator<Slot<T, R>> i = waiting.iterator(); i.hasNext();){
+            var slot = i.next();
+
+            if(null == slot.key){
+                i.remove();
+                run(slot);
+
+            } else if(!resolving.contains(slot.key)){
+                if(isResolved(slot)){
+                    i.remove();
+                    run(slot);
+
+                } else if(resolving.size() < maxInFlight){
+                    i.remove();
+                    resolve(slot);
+                }
+            }
+        }
+    }
+
+    private boolean isResolved(Slot<T, R> slot) {
+        try {
+            return resolved.test(slot.element);
+        }catch(RuntimeException e){
+            // the codec fails the same way, in the executor
+            return false;
+        }
+    }
+
+    private void emit() {
+        var subscriber = downstream.get();
+        var subscription = upstream.get();
+        if(null == subscriber){
+            return;
+        }
+
+        long demand = requested.get();
+        long emitted = 0;
+
+        for(;;){
+            var head = emitting.peek();
+
+            if(null == head){
+                // done is read before incoming, where the last element was offered
+                if(upstreamDone && incoming.isEmpty()){
+                    terminated = true;
+                    if(null != upstreamFailure){
+                        subscriber.onError(upstreamFailure);
+                    } else {
+                        subscriber.onComplete();
+                    }
+                }
+                break;
+            }
+
+            if(head.state != DONE){
+                break;
+            }
+
+            if(null != head.failure){
+                terminated = true;
+                cancelled = true;
+                subscription.cancel();
+                subscriber.onError(head.failure);
+                break;
+            }
+
+            if(null != head.result){
+                if(emitted == demand){
+                    break;
+                }
+                subscriber.onNext(head.result);
+                emitted++;
+            }
+
+            emitting.poll();
+            if(++consumed == replenish){
+                consumed = 0;
+                subscription.request(replenish);
+            }
+        }
+
+        if(emitted > 0 && demand != Long.MAX_VALUE){
+            requested.addAndGet(-emitted);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package io.github.kattlo.cloudevents;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+
+import io.cloudevents.CloudEvent;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deserializes the {@link ConsumerRecords} polled with
+ * {@code value.deserializer} set to
+ * {@link org.apache.kafka.common.serialization.ByteArrayDeserializer}, in
+ * parallel, using a configured {@link KafkaAvroCloudEventDeserializer}.
+ * <p>
+ * Records are split in chunks of consecutive records of the same partition,
+ * decoded by the executor. The output keeps the order of records within each
+ * partition. The schema lookups and caches of deserializer are shared by all
+ * the workers.
+ * <p>
+ * Batches up to the chunk size are decoded in the calling thread. Lazy
+ * decoding makes the deserializer cheap, so do not combine them.
+ *
+ * <pre>
+ * var parallel = new ParallelCloudEventDeserializer(deserializer, executor);
+ *
+ * ConsumerRecords&lt;String, byte[]&gt; polled = consumer.poll(timeout);
+ * ConsumerRecords&lt;String, CloudEvent&gt; events = parallel.deserialize(polled);
+ * </pre>
+ *
+ * @author fabiojose
+ */
+@Slf4j
+public class ParallelCloudEventDeserializer {
+
+    public static final int CHUNK_SIZE_DEFAULT = 64;
+
+    private final KafkaAvroCloudEventDeserializer deserializer;
+    private final Executor executor;
+    private final int chunkSize;
+
+    /**
+     * Parallel in the {@link ForkJoinPool#commonPool()}.
+     *
+     * @param deserializer Configured deserializer, it is not closed by this
+     */
+    public ParallelCloudEventDeserializer(KafkaAvroCloudEventDeserializer deserializer) {
+        this(deserializer, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param deserializer Configured deserializer, it is not closed by this
+     * @param executor To run the decoding, like a {@link ForkJoinPool} or
+     * one with virtual threads
+     */
+    public ParallelCloudEventDeserializer(KafkaAvroCloudEventDeserializer deserializer,
+        Executor executor) {
+        this(deserializer, executor, CHUNK_SIZE_DEFAULT);
+    }
+
+    /**
+     * @param chunkSize Maximum number of records decoded by each task
+     */
+    public ParallelCloudEventDeserializer(KafkaAvroCloudEventDeserializer deserializer,
+        Executor executor, int chunkSize) {
+
+        this.deserializer = Objects.requireNonNull(deserializer);
+        this.executor = Objects.requireNonNull(executor);
+
+        if(chunkSize <= 0){
+            throw new IllegalArgumentException("chunkSize must be greater than 0: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param <K> The type of key
+     * @param records Polled records, with the raw values
+     * @return The same records, with CloudEvent values. Values {@code null}
+     * stay {@code null}
+     * @throws SerializationException When some record could not be
+     * deserialized, with the partition and offset of the first one
+     */
+    public <K> ConsumerRecords<K, CloudEvent> deserialize(ConsumerRecords<K, byte[]> records) {
+
+        if(records.isEmpty()){
+            return ConsumerRecords.empty();
+        }
+
+        var inline = records.count() <= chunkSize;
+
+        var result = new LinkedHashMap<TopicPartition, List<ConsumerRecord<K, CloudEvent>>>();
+        var tasks = new ArrayList<CompletableFuture<Void>>();
+
+        for(TopicPartition partition : records.partitions()){
+            var source = records.records(partition);
+
+            @SuppressWarnings("unchecked")
+            ConsumerRecord<K, CloudEvent>[] target = new ConsumerRecord[source.size()];
+            result.put(partition, Arrays.asList(target));
+
+            for(int from = 0; from < source.size(); from += chunkSize){
+                var start = from;
+                var end = Math.min(from + chunkSize, source.size());
+
+                if(inline){
+                    deserialize(source, target, start, end);
+                } else {
+                    tasks.add(CompletableFuture.runAsync(() ->
+                        deserialize(source, target, start, end), executor));
+                }
+            }
+        }
+
+        if(!tasks.isEmpty()){
+            log.debug("Deserializing {} records in {} tasks", records.count(), tasks.size());
+
+            try {
+                CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+
+            }catch(CompletionException e){
+                // the first failed, in partition and offset order
+                for(CompletableFuture<Void> task : tasks){
+                    if(task.isCompletedExceptionally()){
+                        try {
+                            task.join();
+                        }catch(CompletionException failure){
+                            if(failure.getCause() instanceof RuntimeException){
+                                throw (RuntimeException)failure.getCause();
+                            }
+                            throw failure;
+                        }
+                    }
+                }
+                throw e;
+            }
+        }
+
+        return new ConsumerRecords<>(result);
+    }
+
+    private <K> void deserialize(List<ConsumerRecord<K, byte[]>> source,
+        ConsumerRecord<K, CloudEvent>[] target, int start, int end) {
+
+        for(int i = start; i < end; i++){
+            var record = source.get(i);
+
+            CloudEvent event = null;
+            if(null != record.value()){
+                try {
+                    event = deserializer.deserialize(record.topic(), record.headers(),
+                        record.value());
+
+                }catch(RuntimeException e){
+                    throw new SerializationException("Error deserializing CloudEvent of "
+                        + record.topic() + "-" + record.partition() + " at offset "
+                        + record.offset(), e);
+                }
+            }
+
+            target[i] = new ConsumerRecord<>(record.topic(), record.partition(),
+                record.offset(), record.timestamp(), record.timestampType(), null,
+                record.serializedKeySize(), record.serializedValueSize(), record.key(),
+                event, record.headers(), record.leaderEpoch());
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package io.github.kattlo.cloudevents;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaParseException;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.confluent.kafka.schemaregistry.client.SchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import lombok.Value;
+
+/**
+ * Local snapshot of Schema Registry subjects: subject, version, id and schema.
+ * When configured, it is the authoritative source of schema ids, versions and
+ * schemas, and the Schema Registry is called just for those not in the
+ * bundle. So, serializer and deserializer keep working through registry
+ * outages, and without any registry at all.
+ * <p>
+ * Bundle file format, in JSON:
+ * <pre>
+ * {
+ *   "format": 1,
+ *   "schemas": [
+ *     {"subject": "my-topic-value", "version": 1, "id": 10, "schema": "{...}"}
+ *   ]
+ * }
+ * </pre>
+ * Create it, at build or deploy time, with {@link #snapshot(SchemaRegistryClient, Collection)}
+ * and {@link #write(OutputStream)}.
+ *
+ * @author fabiojose
+ */
+public final class SchemaBundle {
+
+    public static final int FORMAT = 1;
+
+    static final SchemaBundle EMPTY = new SchemaBundle(List.of());
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<Entry> entries;
+
+    private final Map<String, Map<Schema, Integer>> ids = new HashMap<>();
+    private final Map<String, Map<Integer, Integer>> versions = new HashMap<>();
+    private final Map<Integer, Schema> schemas = new HashMap<>();
+
+    SchemaBundle(List<Entry> entries) {
+        this.entries = List.copyOf(entries);
+
+        for(Entry entry : this.entries){
+            ids.computeIfAbsent(entry.subject, s -> new HashMap<>())
+                .put(entry.schema, entry.id);
+
+            versions.computeIfAbsent(entry.subject, s -> new HashMap<>())
+                .put(entry.id, entry.version);
+
+            schemas.put(entry.id, entry.schema);
+        }
+    }
+
+    /**
+     * @return Subject, version, id and schema entries, in the file order
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return Id of schema within the subject, or {@code null} when unknown
+     */
+    Integer idOf(String subject, Schema schema) {
+        var bySchema = ids.get(subject);
+        return null == bySchema
+            ? null
+            : bySchema.get(schema);
+    }
+
+    /**
+     * @return Version of schema id within the subject, or {@code null} when unknown
+     */
+    Integer versionOf(String subject, int schemaId) {
+        var byId = versions.get(subject);
+        return null == byId
+            ? null
+            : byId.get(schemaId);
+    }
+
+    /**
+     * @return The schema of id, or {@code null} when unknown
+     */
+    Schema schemaOf(int schemaId) {
+        return schemas.get(schemaId);
+    }
+
+    /**
+     * Fetch all the versions of subjects.
+     *
+     * @param client Schema Registry client
+     * @param subjects Subjects to include in the bundle
+     * @return The snapshot
+     */
+    public static SchemaBundle snapshot(SchemaRegistryClient client, Collection<String> subjects)
+        throws IOException, RestClientException {
+
+        var result = new ArrayList<Entry>();
+        for(String subject : subjects){
+            for(Integer version : client.getAllVersions(subject)){
+                var metadata = client.getSchemaMetadata(subject, version);
+
+                result.add(new Entry(subject, metadata.getVersion(), metadata.getId(),
+                    new Schema.Parser().parse(metadata.getSchema())));
+            }
+        }
+
+        return new SchemaBundle(result);
+    }
+
+    /**
+     * @param out To write the bundle as JSON, it is not closed
+     */
+    public void write(OutputStream out) throws IOException {
+
+        var root = MAPPER.createObjectNode();
+        root.put("format", FORMAT);
+
+        var array = root.putArray("schemas");
+        for(Entry entry : entries){
+            array.addObject()
+                .put("subject", entry.subject)
+                .put("version", entry.version)
+                .put("id", entry.id)
+                .put("schema", entry.schema.toString());
+        }
+
+        out.write(MAPPER.writerWithDefaultPrettyPrinter().writeValueAsBytes(root));
+    }
+
+    /**
+     * @param in JSON bundle, it is not closed
+     * @throws IOException When it is not a valid bundle
+     */
+    public static SchemaBundle read(InputStream in) throws IOException {
+
+        var root = MAPPER.readTree(in.readAllBytes());
+        if(!(root instanceof ObjectNode) || root.path("format").asInt() != FORMAT){
+            throw new IOException("Unsupported schema bundle format, expected " + FORMAT);
+        }
+
+        var result = new ArrayList<Entry>();
+        for(JsonNode node : root.path("schemas")){
+            try {
+                result.add(new Entry(
+                    node.path("subject").asText(),
+                    node.path("version").asInt(),
+                    node.path("id").asInt(),
+                    new Schema.Parser().parse(node.path("schema").asText())));
+
+            }catch(SchemaParseException e){
+                throw new IOException("Invalid schema of subject " + node.path("subject").asText(), e);
+            }
+        }
+
+        return new SchemaBundle(result);
+    }
+
+    /**
+     * @param name Name of configuration, to report errors
+     * @param location Bundle file in the file system or classpath
+     * @throws IllegalArgumentException When the bundle could not be loaded
+     */
+    static SchemaBundle load(String name, String location) {
+
+        var file = Paths.get(location);
+        try(InputStream in = Files.exists(file)
+                ? Files.newInputStream(file)
+                : Thread.currentThread().getContextClassLoader()
+                    .getResourceAsStream(location.startsWith("/") ? location.substring(1) : location)){
+
+            if(null == in){
+                throw new IllegalArgumentException(name + " schema bundle not found: " + location);
+            }
+
+            return read(in);
+
+        }catch(IOException e){
+            throw new IllegalArgumentException(name + " invalid schema bundle: " + location, e);
+        }
+    }
+
+    @Value
+    public static class Entry {
+        String subject;
+        int version;
+        int id;
+        Schema schema;
+    }
+}
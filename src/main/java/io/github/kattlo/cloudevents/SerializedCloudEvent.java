@@ -0,0 +1,33 @@
+package io.github.kattlo.cloudevents;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+
+import lombok.Value;
+
+/**
+ * CloudEvent already serialized by
+ * {@link KafkaAvroCloudEventSerializer#serializeAll(String, java.util.List)}:
+ * the record headers and the value in Schema Registry wire format.
+ *
+ * @author fabiojose
+ */
+@Value
+public class SerializedCloudEvent {
+
+    Headers headers;
+    byte[] value;
+
+    /**
+     * To produce with {@code value.serializer} set to
+     * {@link org.apache.kafka.common.serialization.ByteArraySerializer}.
+     *
+     * @param <K> The type of key
+     * @param topic Topic to produce, must be the same used to serialize
+     * @param key Key of record, or {@code null}
+     * @return The record with headers and serialized value
+     */
+    public <K> ProducerRecord<K, byte[]> toProducerRecord(String topic, K key) {
+        return new ProducerRecord<>(topic, null, key, value, headers);
+    }
+}
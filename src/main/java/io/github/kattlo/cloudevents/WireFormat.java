@@ -0,0 +1,41 @@
+package io.github.kattlo.cloudevents;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+/**
+ * Schema Registry wire format: magic byte, the four bytes schema id and then
+ * the Avro binary encoded data.
+ *
+ * @author fabiojose
+ */
+final class WireFormat {
+
+    static final byte MAGIC_BYTE = 0x0;
+    static final int ID_SIZE = Integer.BYTES;
+    static final int HEADER_SIZE = 1 + ID_SIZE;
+
+    private WireFormat() {
+    }
+
+    /**
+     * @throws SerializationException When the payload is not in wire format
+     */
+    static int schemaIdOf(byte[] bytes) {
+
+        if(bytes.length < HEADER_SIZE || bytes[0] != MAGIC_BYTE){
+            throw new SerializationException("Unknown magic byte!");
+        }
+
+        return ((bytes[1] & 0xff) << 24)
+            | ((bytes[2] & 0xff) << 16)
+            | ((bytes[3] & 0xff) << 8)
+            | (bytes[4] & 0xff);
+    }
+
+    static void writeSchemaId(byte[] bytes, int schemaId) {
+        bytes[1] = (byte)(schemaId >>> 24);
+        bytes[2] = (byte)(schemaId >>> 16);
+        bytes[3] = (byte)(schemaId >>> 8);
+        bytes[4] = (byte)schemaId;
+    }
+}
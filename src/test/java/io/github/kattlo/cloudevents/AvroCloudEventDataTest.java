@@ -1,11 +1,20 @@
 package io.github.kattlo.cloudevents;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 
@@ -52,4 +61,135 @@ public class AvroCloudEventDataTest {
         assertNotNull(actual);
     }
 
+    @Test
+    public void should_compare_and_print_lazy_data_without_decoding() {
+
+        var calls = new AtomicInteger();
+        var fetches = new AtomicInteger();
+
+        var data = AvroCloudEventData.<AvroEventDataExample>lazy(new byte[]{0, 0, 0, 0, 1, 2}, 1,
+            bytes -> {
+                calls.incrementAndGet();
+                return null;
+            });
+        var same = AvroCloudEventData.<AvroEventDataExample>lazy(new byte[]{0, 0, 0, 0, 1, 2}, 1,
+            bytes -> null);
+
+        var claimed = AvroCloudEventData.<AvroEventDataExample>claimed(
+            URI.create("file:///tmp/grande.avro"), () -> {
+                fetches.incrementAndGet();
+                return null;
+            }, 1, bytes -> null);
+
+        // act
+        var set = new HashSet<>(List.of(data, same, claimed));
+        var text = data + " " + claimed;
+
+        // assert
+        assertEquals(data, same);
+        assertEquals(data.hashCode(), same.hashCode());
+        assertEquals(2, set.size());
+        assertTrue(text.contains("schemaId=1"), text);
+        assertTrue(text.contains("file:///tmp/grande.avro"), text);
+
+        assertNull(data.value);
+        assertEquals(0, calls.get());
+        assertEquals(0, fetches.get());
+    }
+
+    @Test
+    public void should_keep_the_public_value_of_eager_data() {
+
+        var valor = new AvroEventDataExample(301l, "Nome 301", "Descrição 301");
+        var data = new AvroCloudEventData<>(valor);
+
+        assertSame(valor, data.value);
+        assertEquals(new AvroCloudEventData<>(valor), data);
+        assertEquals("AvroCloudEventData(value=" + valor + ")", data.toString());
+    }
+
+    @Test
+    public void should_decode_lazy_data_once() {
+
+        var valor = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+        var calls = new AtomicInteger();
+
+        var data = AvroCloudEventData.<AvroEventDataExample>lazy(new byte[]{0, 0, 0, 0, 1}, 1,
+            bytes -> {
+                calls.incrementAndGet();
+                return valor;
+            });
+
+        assertFalse(data.isDecoded());
+        assertEquals(0, calls.get());
+
+        assertEquals(valor, data.getValue());
+        assertEquals(valor, data.getValue());
+
+        assertTrue(data.isDecoded());
+        assertEquals(1, calls.get());
+        assertEquals(1, data.getSchemaId());
+    }
+
+    @Test
+    public void should_compare_lazy_data_by_the_payload() {
+
+        var valor = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+
+        var eager = new AvroCloudEventData<>(valor);
+        var lazy = AvroCloudEventData.<AvroEventDataExample>lazy(new byte[]{0, 0, 0, 0, 1}, 1,
+            bytes -> valor);
+        var same = AvroCloudEventData.<AvroEventDataExample>lazy(new byte[]{0, 0, 0, 0, 1}, 1,
+            bytes -> valor);
+
+        assertEquals(same, lazy);
+        assertEquals(same.hashCode(), lazy.hashCode());
+        assertNotEquals(eager, lazy);
+        assertNull(eager.getSchemaId());
+    }
+
+    @Test
+    public void should_compare_eager_data_by_the_value_even_with_the_payload() {
+
+        var valor = new AvroEventDataExample(302l, "Nome 302", "Descrição 302");
+
+        var eager = new AvroCloudEventData<>(valor);
+        var retained = new AvroCloudEventData<>(valor, new byte[]{0, 0, 0, 0, 1}, 1);
+        var lazy = AvroCloudEventData.<AvroEventDataExample>lazy(new byte[]{0, 0, 0, 0, 1}, 1,
+            bytes -> valor);
+
+        assertEquals(eager, retained);
+        assertEquals(retained, eager);
+        assertEquals(eager.hashCode(), retained.hashCode());
+        assertNotEquals(retained, lazy);
+        assertNotEquals(lazy, retained);
+    }
+
+    @Test
+    public void should_return_the_raw_payload_without_copy() {
+
+        var valor = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+        var bytes = new byte[]{0, 0, 0, 0, 1, 2, 3};
+
+        var data = new AvroCloudEventData<>(valor, bytes, 1);
+
+        assertTrue(data.hasBytes());
+        assertSame(bytes, data.toBytes());
+
+        var buffer = data.toByteBuffer();
+        assertTrue(buffer.isReadOnly());
+        assertEquals(ByteBuffer.wrap(bytes), buffer);
+    }
+
+    @Test
+    public void should_return_empty_payload_when_not_available() {
+
+        var valor = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+        var data = new AvroCloudEventData<>(valor);
+
+        assertFalse(data.hasBytes());
+        assertEquals(0, data.toBytes().length);
+        assertEquals(0, data.toByteBuffer().remaining());
+    }
+
 }
@@ -0,0 +1,162 @@
+package io.github.kattlo.cloudevents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.acme.AvroEventDataExample;
+
+public class AvroDataDecoderTest {
+
+    private static byte[] serialize(MockSchemaRegistryClient registry, Object value) {
+        var serializer = new KafkaAvroSerializer(registry,
+            Map.of("schema.registry.url", "http://localhost:8081"));
+
+        var bytes = serializer.serialize("meu-topico", value);
+        serializer.close();
+
+        return bytes;
+    }
+
+    @Test
+    public void should_decode_as_generic_record() {
+
+        var registry = new MockSchemaRegistryClient();
+        var expected = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+        var bytes = serialize(registry, expected);
+
+        var decoder = new AvroDataDecoder(registry, false);
+
+        var actual = decoder.decode(bytes);
+
+        assertTrue(actual instanceof GenericData.Record);
+        assertEquals(expected.getCode(), ((GenericRecord)actual).get("code"));
+    }
+
+    @Test
+    public void should_decode_as_specific_record() {
+
+        var registry = new MockSchemaRegistryClient();
+        var expected = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+        var bytes = serialize(registry, expected);
+
+        var decoder = new AvroDataDecoder(registry, true);
+
+        assertEquals(expected, decoder.decode(bytes));
+    }
+
+    @Test
+    public void should_decode_as_reader_class() {
+
+        var registry = new MockSchemaRegistryClient();
+        var expected = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+        var bytes = serialize(registry, expected);
+
+        var decoder = new AvroDataDecoder(registry, false);
+
+        assertEquals(expected, decoder.decode(bytes, AvroEventDataExample.class));
+    }
+
+    @Test
+    public void should_fetch_the_writer_schema_once_per_id() {
+
+        var registry = new CountingSchemaRegistryClient();
+        var expected = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+        var bytes = serialize(registry, expected);
+
+        var decoder = new AvroDataDecoder(registry, false);
+
+        for(int i = 0; i < 1000; i++){
+            decoder.decode(bytes);
+            decoder.decode(bytes, AvroEventDataExample.class);
+        }
+
+        assertEquals(1, registry.schemaByIdCalls.get());
+    }
+
+    @Test
+    public void should_decode_just_the_projected_fields() {
+
+        var registry = new MockSchemaRegistryClient();
+        var expected = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+        var bytes = serialize(registry, expected);
+
+        var decoder = new AvroDataDecoder(registry, true);
+
+        var actual = (GenericRecord)decoder.decode(bytes,
+            AvroProjection.of("projecao", "description; inexistente"));
+
+        assertTrue(actual instanceof GenericData.Record);
+        assertEquals(1, actual.getSchema().getFields().size());
+        assertEquals(expected.getDescription(), actual.get("description").toString());
+        assertEquals(expected.getSchema().getFullName(), actual.getSchema().getFullName());
+    }
+
+    @Test
+    public void should_decode_as_the_projection_schema() {
+
+        var registry = new MockSchemaRegistryClient();
+        var expected = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+        var bytes = serialize(registry, expected);
+
+        var projection = SchemaBuilder.record(expected.getSchema().getName())
+            .namespace(expected.getSchema().getNamespace())
+            .fields()
+                .requiredLong("code")
+                .name("origem").type().stringType().stringDefault("desconhecida")
+            .endRecord();
+
+        var decoder = new AvroDataDecoder(registry, false);
+
+        var actual = (GenericRecord)decoder.decode(bytes, AvroProjection.of("projecao", projection));
+
+        assertEquals(expected.getCode(), actual.get("code"));
+        assertEquals("desconhecida", actual.get("origem").toString());
+        assertEquals(projection, actual.getSchema());
+    }
+
+    @Test
+    public void should_throw_when_magic_byte_is_unknown() {
+
+        var decoder = new AvroDataDecoder(new MockSchemaRegistryClient(), false);
+
+        assertThrows(SerializationException.class, () ->
+            decoder.decode(new byte[]{1, 0, 0, 0, 1}));
+    }
+
+    @Test
+    public void should_throw_when_schema_id_is_unknown() {
+
+        var decoder = new AvroDataDecoder(new MockSchemaRegistryClient(), false);
+
+        assertThrows(SerializationException.class, () ->
+            decoder.decode(new byte[]{0, 0, 0, 0, 99}));
+    }
+
+    private static class CountingSchemaRegistryClient extends MockSchemaRegistryClient {
+
+        final AtomicInteger schemaByIdCalls = new AtomicInteger();
+
+        @Override
+        public synchronized ParsedSchema getSchemaById(int id)
+            throws IOException, RestClientException {
+
+            schemaByIdCalls.incrementAndGet();
+            return super.getSchemaById(id);
+        }
+    }
+}
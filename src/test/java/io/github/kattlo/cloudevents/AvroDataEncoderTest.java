@@ -0,0 +1,116 @@
+package io.github.kattlo.cloudevents;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroSerializer;
+import org.acme.AvroEventDataExample;
+
+public class AvroDataEncoderTest {
+
+    private static byte[] serialize(MockSchemaRegistryClient registry, Object value) {
+        var serializer = new KafkaAvroSerializer(registry,
+            Map.of("schema.registry.url", "http://localhost:8081"));
+
+        var bytes = serializer.serialize("meu-topico", value);
+        serializer.close();
+
+        return bytes;
+    }
+
+    @Test
+    public void should_encode_as_kafka_avro_serializer() throws Exception {
+
+        var registry = new MockSchemaRegistryClient();
+        var specific = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+        var generic = new GenericRecordBuilder(specific.getSchema())
+            .set("code", 301l)
+            .set("name", "Nome 301")
+            .set("description", "Descrição 301")
+            .build();
+
+        var expectedSpecific = serialize(registry, specific);
+        var expectedGeneric = serialize(registry, generic);
+
+        var schemaId = registry.getId("meu-topico-value", new AvroSchema(specific.getSchema()));
+        var encoder = new AvroDataEncoder();
+
+        // act, twice to reuse the buffer
+        for(int i = 0; i < 2; i++){
+            assertArrayEquals(expectedSpecific, encoder.encode(schemaId, specific));
+            assertArrayEquals(expectedGeneric, encoder.encode(schemaId, generic));
+        }
+    }
+
+    @Test
+    public void should_throw_when_value_does_not_match_its_schema() {
+
+        var value = new GenericRecordBuilder(AvroEventDataExample.getClassSchema())
+            .set("code", 302l)
+            .set("name", "Nome 302")
+            .set("description", "Descrição 302")
+            .build();
+        value.put("code", "não é long");
+
+        var encoder = new AvroDataEncoder();
+
+        assertThrows(SerializationException.class, () ->
+            encoder.encode(1, value));
+    }
+
+    @Test
+    public void should_abort_when_payload_exceeds_the_limit() {
+
+        var grande = new AvroEventDataExample(303l, "Nome 303", "Descrição 303 ".repeat(1000));
+        var pequeno = new AvroEventDataExample(304l, "Nome 304", "Descrição 304");
+
+        var encoder = new AvroDataEncoder();
+
+        // act
+        assertThrows(AvroDataEncoder.LimitExceededException.class, () ->
+            encoder.encode(1, grande, 1024));
+
+        var actual = encoder.encode(1, pequeno, 1024);
+
+        // assert
+        assertArrayEquals(encoder.encode(1, pequeno), actual);
+        assertTrue(encoder.encode(1, grande).length > 1024);
+    }
+
+    @Test
+    public void should_grow_and_shrink_the_buffer() {
+
+        var buffer = new AvroDataEncoder.Buffer();
+        var huge = new byte[AvroDataEncoder.MAX_RETAINED_SIZE * 2];
+
+        // act: one huge record
+        buffer.reset();
+        buffer.write(huge, 0, huge.length);
+
+        assertEquals(huge.length, buffer.toByteArray().length);
+        assertTrue(buffer.capacity() >= huge.length);
+
+        // act: many small records
+        for(int i = 0; i < 100; i++){
+            buffer.reset();
+            buffer.writeInt(i);
+            assertEquals(Integer.BYTES, buffer.toByteArray().length);
+        }
+
+        buffer.reset();
+
+        // assert
+        assertTrue(buffer.capacity() < AvroDataEncoder.MAX_RETAINED_SIZE,
+            "capacity " + buffer.capacity());
+    }
+}
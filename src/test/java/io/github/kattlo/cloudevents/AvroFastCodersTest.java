@@ -0,0 +1,283 @@
+package io.github.kattlo.cloudevents;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.avro.AvroTypeException;
+import org.apache.avro.LogicalTypes;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.util.Utf8;
+import org.junit.jupiter.api.Test;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import org.acme.AvroEventDataExample;
+
+public class AvroFastCodersTest {
+
+    private static final Schema TIMESTAMP_MILLIS = LogicalTypes.timestampMillis()
+        .addToSchema(Schema.create(Schema.Type.LONG));
+
+    private static final Schema ITEM = SchemaBuilder.record("Item")
+        .namespace("org.acme.fast")
+        .fields()
+            .requiredString("sku")
+            .requiredInt("quantity")
+        .endRecord();
+
+    private static final Schema ORDER = SchemaBuilder.record("Order")
+        .namespace("org.acme.fast")
+        .fields()
+            .requiredLong("id")
+            .requiredBoolean("paid")
+            .requiredFloat("discount")
+            .requiredDouble("total")
+            .requiredBytes("signature")
+            .optionalString("note")
+            .name("status").type().enumeration("Status")
+                .symbols("NEW", "PAID", "SHIPPED").noDefault()
+            .name("hash").type().fixed("Hash").size(4).noDefault()
+            .name("items").type().array().items(ITEM).noDefault()
+            .name("tags").type().map().values().stringType().noDefault()
+            .name("createdAt").type(TIMESTAMP_MILLIS).noDefault()
+            .name("payment").type().unionOf()
+                .nullType().and().longType().and().stringType().endUnion()
+                .nullDefault()
+        .endRecord();
+
+    private static GenericRecord orderOf(Random random) {
+
+        var items = new ArrayList<GenericRecord>();
+        for(int i = 0; i < random.nextInt(4); i++){
+            items.add(new GenericRecordBuilder(ITEM)
+                .set("sku", new Utf8("sku-" + random.nextInt(1000)))
+                .set("quantity", random.nextInt())
+                .build());
+        }
+
+        var tags = new HashMap<Utf8, Utf8>();
+        for(int i = 0; i < random.nextInt(3); i++){
+            tags.put(new Utf8("tag-" + i), new Utf8("valor-" + random.nextInt()));
+        }
+
+        var signature = new byte[random.nextInt(16)];
+        random.nextBytes(signature);
+
+        var hash = new byte[4];
+        random.nextBytes(hash);
+
+        Object payment;
+        switch(random.nextInt(3)){
+            case 0: payment = null; break;
+            case 1: payment = random.nextLong(); break;
+            default: payment = new Utf8("cartão " + random.nextInt());
+        }
+
+        return new GenericRecordBuilder(ORDER)
+            .set("id", random.nextLong())
+            .set("paid", random.nextBoolean())
+            .set("discount", random.nextFloat())
+            .set("total", random.nextDouble())
+            .set("signature", ByteBuffer.wrap(signature))
+            .set("note", random.nextBoolean() ? null : new Utf8("observação " + random.nextInt()))
+            .set("status", new GenericData.EnumSymbol(ORDER.getField("status").schema(),
+                ORDER.getField("status").schema().getEnumSymbols().get(random.nextInt(3))))
+            .set("hash", new GenericData.Fixed(ORDER.getField("hash").schema(), hash))
+            .set("items", items)
+            .set("tags", tags)
+            .set("createdAt", random.nextLong())
+            .set("payment", payment)
+            .build();
+    }
+
+    private static byte[] write(DatumWriter<Object> writer, Object value) throws IOException {
+        var out = new ByteArrayOutputStream();
+        var encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+        writer.write(value, encoder);
+        encoder.flush();
+
+        return out.toByteArray();
+    }
+
+    private static Object read(DatumReader<?> reader, byte[] bytes) throws IOException {
+        return reader.read(null, DecoderFactory.get().binaryDecoder(bytes, null));
+    }
+
+    @Test
+    public void should_write_specific_records_as_the_standard_writer() throws Exception {
+
+        var random = new Random(42);
+        var schema = AvroEventDataExample.getClassSchema();
+
+        var standard = new SpecificDatumWriter<Object>(schema);
+        var fast = AvroFastCoders.writerOf(schema, true);
+
+        for(int i = 0; i < 200; i++){
+            var value = new AvroEventDataExample(random.nextLong(), "Nome " + i,
+                "Descrição " + random.nextInt());
+
+            assertArrayEquals(write(standard, value), write(fast, value));
+        }
+    }
+
+    @Test
+    public void should_read_specific_records_as_the_standard_reader() throws Exception {
+
+        var random = new Random(42);
+        var schema = AvroEventDataExample.getClassSchema();
+
+        var standard = new SpecificDatumReader<>(schema, schema);
+        var fast = AvroFastCoders.readerOf(schema, schema, true);
+
+        for(int i = 0; i < 200; i++){
+            var value = new AvroEventDataExample(random.nextLong(), "Nome " + i,
+                "Descrição " + random.nextInt());
+
+            var bytes = write(AvroFastCoders.writerOf(schema, true), value);
+
+            assertEquals(value, read(fast, bytes));
+            assertEquals(read(standard, bytes), read(fast, bytes));
+        }
+    }
+
+    @Test
+    public void should_read_generic_records_as_the_standard_reader() throws Exception {
+
+        var random = new Random(42);
+        var writer = AvroFastCoders.writerOf(ORDER, false);
+
+        var standard = new GenericDatumReader<>(ORDER, ORDER);
+        var fast = AvroFastCoders.readerOf(ORDER, ORDER, false);
+
+        for(int i = 0; i < 500; i++){
+            var value = orderOf(random);
+            var bytes = write(writer, value);
+
+            assertArrayEquals(write(new GenericDatumWriter<>(ORDER), value), bytes);
+            assertEquals(read(standard, bytes), read(fast, bytes));
+            assertEquals(value, read(fast, bytes));
+        }
+    }
+
+    @Test
+    public void should_resolve_the_schema_evolution_as_the_standard_reader() throws Exception {
+
+        var random = new Random(42);
+        var reader = SchemaBuilder.record("Order")
+            .namespace("org.acme.fast")
+            .fields()
+                .requiredLong("id")
+                .requiredDouble("total")
+                .name("items").type().array().items(ITEM).noDefault()
+                .name("channel").type().stringType().stringDefault("web")
+                .name("payment").type().unionOf()
+                    .nullType().and().longType().and().stringType().endUnion()
+                    .nullDefault()
+            .endRecord();
+
+        var writer = AvroFastCoders.writerOf(ORDER, false);
+
+        var standard = new GenericDatumReader<>(ORDER, reader);
+        var fast = AvroFastCoders.readerOf(ORDER, reader, false);
+
+        for(int i = 0; i < 500; i++){
+            var bytes = write(writer, orderOf(random));
+
+            var expected = read(standard, bytes);
+            var actual = (GenericRecord)read(fast, bytes);
+
+            assertEquals(expected, actual);
+            assertEquals("web", actual.get("channel").toString());
+        }
+    }
+
+    @Test
+    public void should_fall_back_to_standard_reader_when_not_supported() throws Exception {
+
+        var writer = SchemaBuilder.record("Order")
+            .namespace("org.acme.fast")
+            .fields()
+                .requiredLong("id")
+            .endRecord();
+
+        // the fast reader encodes the defaults up front, this one is invalid
+        var reader = new Schema.Parser().setValidateDefaults(false).parse(
+            "{\"type\":\"record\",\"name\":\"Order\",\"namespace\":\"org.acme.fast\","
+            + "\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+            + "{\"name\":\"quantity\",\"type\":\"int\",\"default\":\"x\"}]}");
+
+        var actual = AvroFastCoders.readerOf(writer, reader, false);
+
+        assertTrue(actual instanceof GenericDatumReader);
+
+        var bytes = write(AvroFastCoders.writerOf(writer, false),
+            new GenericRecordBuilder(writer).set("id", 1l).build());
+
+        assertThrows(AvroTypeException.class, () -> read(actual, bytes));
+    }
+
+    @Test
+    public void should_round_trip_through_the_decoder() throws Exception {
+
+        var registry = new MockSchemaRegistryClient();
+        var random = new Random(42);
+
+        var schemaId = registry.register("meu-topico-value",
+            new AvroSchema(ORDER));
+
+        var standardEncoder = new AvroDataEncoder();
+        var fastEncoder = new AvroDataEncoder(true);
+
+        var standardDecoder = new AvroDataDecoder(registry, false);
+        var fastDecoder = new AvroDataDecoder(registry, false, CloudEventMetrics.NOOP,
+            SchemaBundle.EMPTY, true);
+
+        var specificDecoder = new AvroDataDecoder(registry, true, CloudEventMetrics.NOOP,
+            SchemaBundle.EMPTY, true);
+
+        List<GenericRecord> values = new ArrayList<>();
+        for(int i = 0; i < 100; i++){
+            values.add(orderOf(random));
+        }
+
+        for(GenericRecord value : values){
+            var bytes = fastEncoder.encode(schemaId, value);
+
+            assertArrayEquals(standardEncoder.encode(schemaId, value), bytes);
+            assertEquals(standardDecoder.decode(bytes), fastDecoder.decode(bytes));
+            assertEquals(value, specificDecoder.decode(bytes));
+        }
+
+        var specific = new AvroEventDataExample(1l, "Nome 1", "Descrição 1");
+        var specificId = registry.register("meu-topico-value",
+            new AvroSchema(specific.getSchema()));
+
+        var bytes = fastEncoder.encode(specificId, specific);
+
+        assertArrayEquals(standardEncoder.encode(specificId, specific), bytes);
+        assertEquals(specific, specificDecoder.decode(bytes));
+        assertEquals(specific, fastDecoder.decode(bytes, AvroEventDataExample.class));
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.kattlo.cloudevents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.avro.SchemaBuilder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class AvroSchemasTest {
+
+    @Test
+    public void should_load_the_types_referenced_by_other_files(@TempDir Path dir)
+        throws Exception {
+
+        // setup
+        var cliente = SchemaBuilder.record("Cliente")
+            .namespace("org.acme.tipos")
+            .fields()
+                .requiredString("nome")
+            .endRecord();
+
+        // sorted before the file of referenced type
+        Files.writeString(dir.resolve("a-pedido.avsc"), "{\"type\":\"record\","
+            + "\"name\":\"Pedido\",\"namespace\":\"org.acme.tipos\",\"fields\":["
+            + "{\"name\":\"numero\",\"type\":\"string\"},"
+            + "{\"name\":\"cliente\",\"type\":\"org.acme.tipos.Cliente\"}]}");
+        Files.writeString(dir.resolve("b-cliente.avsc"), cliente.toString());
+
+        // act
+        var actual = AvroSchemas.load("schemas", List.of(dir.toString()));
+
+        // assert
+        assertEquals(2, actual.size());
+        assertEquals("org.acme.tipos.Pedido", actual.get(0).getFullName());
+        assertEquals(cliente, actual.get(0).getField("cliente").schema());
+        assertEquals(cliente, actual.get(1));
+    }
+
+    @Test
+    public void should_throw_when_the_referenced_type_is_not_defined(@TempDir Path dir)
+        throws Exception {
+
+        // setup
+        Files.writeString(dir.resolve("pedido.avsc"), "{\"type\":\"record\","
+            + "\"name\":\"Pedido\",\"namespace\":\"org.acme.tipos\",\"fields\":["
+            + "{\"name\":\"cliente\",\"type\":\"org.acme.tipos.Cliente\"}]}");
+
+        // act
+        var actual = assertThrows(IllegalArgumentException.class, () ->
+            AvroSchemas.load("schemas", List.of(dir.toString())));
+
+        // assert
+        assertTrue(actual.getMessage().contains("pedido.avsc"), actual.getMessage());
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.kattlo.cloudevents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void should_throw_when_max_size_is_not_positive() {
+
+        assertThrows(IllegalArgumentException.class, () ->
+            new BoundedCache<String, Integer>(0, Duration.ZERO));
+    }
+
+    @Test
+    public void should_return_the_cached_value() {
+
+        var cache = new BoundedCache<String, Integer>(10, Duration.ZERO);
+        cache.put("meu-topico-value", 1);
+
+        assertEquals(1, cache.get("meu-topico-value"));
+    }
+
+    @Test
+    public void should_evict_the_least_recently_used() {
+
+        var cache = new BoundedCache<String, Integer>(2, Duration.ZERO);
+        cache.put("a", 1);
+        cache.put("b", 2);
+
+        // touch a, then b becomes the eldest
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertEquals(3, cache.get("c"));
+    }
+
+    @Test
+    public void should_miss_when_entry_expires() throws Exception {
+
+        var cache = new BoundedCache<String, Integer>(10, Duration.ofMillis(1));
+        cache.put("a", 1);
+
+        Thread.sleep(5);
+
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+}
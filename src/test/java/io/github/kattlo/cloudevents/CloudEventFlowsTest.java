@@ -0,0 +1,401 @@
+package io.github.kattlo.cloudevents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.kafka.CloudEventSerializer;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+
+public class CloudEventFlowsTest {
+
+    private static final String TOPICO = "meu-topico-fluxo";
+    private static final String REGISTRY_THREAD = "registro-";
+
+    private final SlowSchemaRegistryClient registry = new SlowSchemaRegistryClient();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(8, runnable -> {
+        var thread = new Thread(runnable, REGISTRY_THREAD + runnable.hashCode());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private KafkaAvroCloudEventSerializer serializer;
+    private KafkaAvroCloudEventDeserializer deserializer;
+
+    @BeforeEach
+    public void beforeEach() {
+
+        serializer = new KafkaAvroCloudEventSerializer(registry);
+        deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        serializer.close();
+        deserializer.close();
+        executor.shutdownNow();
+    }
+
+    private static Schema schemaOf(int type) {
+        return SchemaBuilder.record("Tipo" + type)
+            .namespace("org.acme.fluxo")
+            .fields()
+                .requiredInt("sequencia")
+            .endRecord();
+    }
+
+    private static List<CloudEvent> eventsOf(int count, int types) {
+
+        var schemas = new ArrayList<Schema>();
+        for(int i = 0; i < types; i++){
+            schemas.add(schemaOf(i));
+        }
+
+        var events = new ArrayList<CloudEvent>();
+        for(int i = 0; i < count; i++){
+            GenericRecord value = new GenericRecordBuilder(schemas.get(i % types))
+                .set("sequencia", i)
+                .build();
+
+            events.add(CloudEventBuilder.v1()
+                .withId(String.valueOf(i))
+                .withSource(URI.create("/exemplo/fluxo"))
+                .withType("exemplo.fluxo")
+                .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(value))
+                .build());
+        }
+
+        return events;
+    }
+
+    private static int sequenceOf(CloudEvent event) {
+        GenericRecord data = AvroCloudEventData.dataOf(event.getData());
+        return (int)data.get("sequencia");
+    }
+
+    @Test
+    public void should_round_trip_in_order_within_the_demand() throws Exception {
+
+        var events = eventsOf(200, 5);
+        var publisher = new ListPublisher<>(events);
+
+        var serializing = CloudEventFlows.serializer(serializer, TOPICO, executor, 2, 16);
+        var deserializing = CloudEventFlows.deserializer(deserializer, TOPICO, executor, 2, 16);
+
+        var collector = new Collector<CloudEvent>(3);
+
+        // act
+        publisher.subscribe(serializing);
+        serializing.subscribe(deserializing);
+        deserializing.subscribe(collector);
+
+        collector.done.get(10, TimeUnit.SECONDS);
+
+        // assert
+        assertEquals(events.size(), collector.items.size());
+        for(int i = 0; i < events.size(); i++){
+            assertEquals(events.get(i).getId(), collector.items.get(i).getId());
+            assertEquals(i, sequenceOf(collector.items.get(i)));
+        }
+
+        assertTrue(publisher.maxAhead.get() <= 16, "ahead " + publisher.maxAhead.get());
+    }
+
+    @Test
+    public void should_call_the_registry_only_in_the_executor() throws Exception {
+
+        var events = eventsOf(100, 4);
+        var serializing = CloudEventFlows.serializer(serializer, TOPICO, executor);
+        var collector = new Collector<SerializedCloudEvent>(Long.MAX_VALUE);
+
+        // act
+        new ListPublisher<>(events).subscribe(serializing);
+        serializing.subscribe(collector);
+
+        collector.done.get(10, TimeUnit.SECONDS);
+
+        // assert
+        assertEquals(events.size(), collector.items.size());
+        assertFalse(registry.threads.isEmpty());
+        registry.threads.forEach(thread ->
+            assertTrue(thread.startsWith(REGISTRY_THREAD), thread));
+    }
+
+    @Test
+    public void should_resolve_again_in_the_executor_when_the_cache_expires()
+        throws Exception {
+
+        // setup
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.VERSION_CACHE_TTL_MS_CONFIG, 50);
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var signalling = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "sinal");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        var events = eventsOf(20, 2);
+        var serializing = CloudEventFlows.serializer(serializer, TOPICO, executor);
+        var collector = new Collector<SerializedCloudEvent>(Long.MAX_VALUE);
+
+        // act
+        try(var publisher = new SubmissionPublisher<CloudEvent>(signalling, 16)){
+            publisher.subscribe(serializing);
+            serializing.subscribe(collector);
+
+            events.subList(0, 10).forEach(publisher::submit);
+            while(collector.items.size() < 10){
+                Thread.sleep(10);
+            }
+
+            // expires the schema ids, versions and ce_dataschema headers
+            Thread.sleep(100);
+            registry.threads.clear();
+
+            events.subList(10, 20).forEach(publisher::submit);
+        }
+
+        collector.done.get(10, TimeUnit.SECONDS);
+        signalling.shutdownNow();
+
+        // assert
+        assertEquals(events.size(), collector.items.size());
+        assertFalse(registry.threads.isEmpty());
+        registry.threads.forEach(thread ->
+            assertTrue(thread.startsWith(REGISTRY_THREAD), thread));
+    }
+
+    @Test
+    public void should_bound_the_schemas_resolved_at_same_time() throws Exception {
+
+        var events = eventsOf(60, 12);
+        var serializing = CloudEventFlows.serializer(serializer, TOPICO, executor, 3, 64);
+        var collector = new Collector<SerializedCloudEvent>(Long.MAX_VALUE);
+
+        // act
+        new ListPublisher<>(events).subscribe(serializing);
+        serializing.subscribe(collector);
+
+        collector.done.get(10, TimeUnit.SECONDS);
+
+        // assert
+        assertEquals(events.size(), collector.items.size());
+        assertTrue(registry.maxConcurrent.get() <= 3, "concurrent " + registry.maxConcurrent.get());
+    }
+
+    @Test
+    public void should_emit_the_events_before_the_first_failure() throws Exception {
+
+        var events = new ArrayList<>(eventsOf(10, 2));
+        events.set(5, CloudEventBuilder.v1()
+            .withId("sem-avro")
+            .withSource(URI.create("/exemplo/fluxo"))
+            .withType("exemplo.fluxo")
+            .withData("text/plain", "texto".getBytes())
+            .build());
+
+        var publisher = new ListPublisher<>(events);
+        var serializing = CloudEventFlows.serializer(serializer, TOPICO, executor);
+        var collector = new Collector<SerializedCloudEvent>(2);
+
+        // act
+        publisher.subscribe(serializing);
+        serializing.subscribe(collector);
+
+        var actual = assertThrows(ExecutionException.class, () ->
+            collector.done.get(10, TimeUnit.SECONDS));
+
+        // assert
+        assertTrue(actual.getCause() instanceof IllegalArgumentException);
+        assertEquals(5, collector.items.size());
+        assertTrue(publisher.cancelled);
+    }
+
+    private static class Collector<T> implements Flow.Subscriber<T> {
+
+        final List<T> items = Collections.synchronizedList(new ArrayList<>());
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        private final long batch;
+        private Flow.Subscription subscription;
+
+        Collector(long batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(batch);
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+            if(items.size() % batch == 0){
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+            done.completeExceptionally(failure);
+        }
+
+        @Override
+        public void onComplete() {
+            done.complete(null);
+        }
+    }
+
+    private static class ListPublisher<T> implements Flow.Publisher<T> {
+
+        final AtomicLong maxAhead = new AtomicLong();
+        volatile boolean cancelled;
+
+        private final List<T> items;
+
+        ListPublisher(List<T> items) {
+            this.items = items;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super T> subscriber) {
+
+            var demand = new AtomicLong();
+            var requested = new AtomicLong();
+            var emitted = new AtomicInteger();
+
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    maxAhead.accumulateAndGet(requested.addAndGet(n) - emitted.get(), Math::max);
+
+                    // one emitting at time, the reentrant calls add demand
+                    if(demand.getAndAdd(n) != 0){
+                        return;
+                    }
+
+                    var pending = n;
+                    for(;;){
+                        long count = 0;
+                        while(count < pending && emitted.get() < items.size() && !cancelled){
+                            subscriber.onNext(items.get(emitted.getAndIncrement()));
+                            count++;
+                        }
+
+                        if(emitted.get() == items.size() && !cancelled){
+                            emitted.incrementAndGet();
+                            subscriber.onComplete();
+                            return;
+                        }
+
+                        pending = demand.addAndGet(-count);
+                        if(pending == 0 || cancelled){
+                            return;
+                        }
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    private static class SlowSchemaRegistryClient extends MockSchemaRegistryClient {
+
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        private void called() {
+            threads.add(Thread.currentThread().getName());
+
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+            concurrent.decrementAndGet();
+        }
+
+        @Override
+        public int register(String subject, ParsedSchema schema)
+            throws IOException, RestClientException {
+
+            called();
+            return super.register(subject, schema);
+        }
+
+        @Override
+        public int getVersion(String subject, ParsedSchema schema)
+            throws IOException, RestClientException {
+
+            called();
+            return super.getVersion(subject, schema);
+        }
+
+        @Override
+        public ParsedSchema getSchemaById(int id) throws IOException, RestClientException {
+
+            called();
+            return super.getSchemaById(id);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package io.github.kattlo.cloudevents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.time.OffsetDateTime;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import io.cloudevents.SpecVersion;
+import io.cloudevents.types.Time;
+import org.acme.AvroEventDataExample;
+
+public class CloudEventHeadersReaderTest {
+
+    private static Headers headersOf(String... keyValues) {
+        Headers headers = new RecordHeaders();
+        for(int i = 0; i < keyValues.length; i += 2){
+            headers.add(keyValues[i], keyValues[i + 1].getBytes());
+        }
+        return headers;
+    }
+
+    @Test
+    public void should_read_attributes_and_extensions() {
+
+        // setup
+        var time = OffsetDateTime.now();
+        var headers = headersOf(
+            "ce_specversion", "1.0",
+            "ce_id", "0001",
+            "ce_source", "/exemplo/enviar",
+            "ce_type", "exemplo",
+            "ce_subject", "assunto",
+            "ce_time", Time.writeTime(time),
+            "ce_dataschema", "http://localhost:8081/subjects/meu-topico-value/versions/1/schema",
+            "ce_partitionkey", "chave",
+            "content-type", "application/avro",
+            "outro", "ignorado");
+
+        var data = new AvroCloudEventData<>(
+            new AvroEventDataExample(300l, "Nome 300", "Descrição 300"));
+
+        // act
+        var actual = CloudEventHeadersReader.read(headers, AvroCloudEventData.MIME_TYPE, data);
+
+        // assert
+        assertEquals(SpecVersion.V1, actual.getSpecVersion());
+        assertEquals("0001", actual.getId());
+        assertEquals(URI.create("/exemplo/enviar"), actual.getSource());
+        assertEquals("exemplo", actual.getType());
+        assertEquals("assunto", actual.getSubject());
+        assertEquals(time.toInstant(), actual.getTime().toInstant());
+        assertEquals(URI.create("http://localhost:8081/subjects/meu-topico-value/versions/1/schema"),
+            actual.getDataSchema());
+        assertEquals(AvroCloudEventData.MIME_TYPE, actual.getDataContentType());
+        assertEquals("chave", actual.getExtension("partitionkey"));
+        assertEquals(1, actual.getExtensionNames().size());
+        assertSame(data, actual.getData());
+    }
+
+    @Test
+    public void should_read_without_optional_attributes() {
+
+        var headers = headersOf(
+            "ce_specversion", "1.0",
+            "ce_id", "0001",
+            "ce_source", "/exemplo/enviar",
+            "ce_type", "exemplo");
+
+        var actual = CloudEventHeadersReader.read(headers, AvroCloudEventData.MIME_TYPE, null);
+
+        assertNull(actual.getTime());
+        assertNull(actual.getSubject());
+        assertNull(actual.getDataSchema());
+        assertTrue(actual.getExtensionNames().isEmpty());
+    }
+
+    @Test
+    public void should_throw_when_specversion_is_absent() {
+
+        var headers = headersOf("ce_id", "0001");
+
+        assertThrows(SerializationException.class, () ->
+            CloudEventHeadersReader.read(headers, AvroCloudEventData.MIME_TYPE, null));
+    }
+
+    @Test
+    public void should_throw_when_specversion_is_not_supported() {
+
+        var headers = headersOf(
+            "ce_specversion", "0.3",
+            "ce_id", "0001",
+            "ce_source", "/exemplo/enviar",
+            "ce_type", "exemplo");
+
+        var actual = assertThrows(SerializationException.class, () ->
+            CloudEventHeadersReader.read(headers, AvroCloudEventData.MIME_TYPE, null));
+
+        assertTrue(actual.getMessage().contains("not supported"));
+    }
+
+    @Test
+    public void should_throw_when_required_attribute_is_absent() {
+
+        var headers = headersOf(
+            "ce_specversion", "1.0",
+            "ce_id", "0001",
+            "ce_source", "/exemplo/enviar");
+
+        var actual = assertThrows(SerializationException.class, () ->
+            CloudEventHeadersReader.read(headers, AvroCloudEventData.MIME_TYPE, null));
+
+        assertTrue(actual.getMessage().contains("ce_type"));
+    }
+
+    @Test
+    public void should_throw_when_time_is_malformed() {
+
+        var headers = headersOf(
+            "ce_specversion", "1.0",
+            "ce_id", "0001",
+            "ce_source", "/exemplo/enviar",
+            "ce_type", "exemplo",
+            "ce_time", "ontem às 10h");
+
+        var actual = assertThrows(SerializationException.class, () ->
+            CloudEventHeadersReader.read(headers, AvroCloudEventData.MIME_TYPE, null));
+
+        assertTrue(actual.getMessage().contains("ce_time"), actual.getMessage());
+    }
+
+    @Test
+    public void should_throw_when_source_is_malformed() {
+
+        var headers = headersOf(
+            "ce_specversion", "1.0",
+            "ce_id", "0001",
+            "ce_source", "/exemplo/com espaço",
+            "ce_type", "exemplo");
+
+        var actual = assertThrows(SerializationException.class, () ->
+            CloudEventHeadersReader.read(headers, AvroCloudEventData.MIME_TYPE, null));
+
+        assertTrue(actual.getMessage().contains("ce_source"), actual.getMessage());
+    }
+
+    @Test
+    public void should_throw_when_dataschema_is_malformed() {
+
+        var headers = headersOf(
+            "ce_specversion", "1.0",
+            "ce_id", "0001",
+            "ce_source", "/exemplo/enviar",
+            "ce_type", "exemplo",
+            "ce_dataschema", "http://localhost:8081/subjects/{meu-topico}");
+
+        var actual = assertThrows(SerializationException.class, () ->
+            CloudEventHeadersReader.read(headers, AvroCloudEventData.MIME_TYPE, null));
+
+        assertTrue(actual.getMessage().contains("ce_dataschema"), actual.getMessage());
+    }
+}
@@ -0,0 +1,190 @@
+package io.github.kattlo.cloudevents;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.core.v1.CloudEventV1;
+import io.cloudevents.kafka.CloudEventSerializer;
+import io.cloudevents.types.Time;
+import org.acme.AvroEventDataExample;
+
+public class CloudEventHeadersWriterTest {
+
+    private static CloudEvent eventOf(String id) {
+        return CloudEventBuilder.v1()
+            .withId(id)
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo")
+            .withSubject("assunto-" + id)
+            .withTime(OffsetDateTime.parse("2021-03-01T10:15:30.120Z"))
+            .withExtension("partitionkey", "chave-" + id)
+            .withExtension("tenant", "acme")
+            .withExtension("retries", 3)
+            .withExtension("replay", true)
+            .withExtension("origin", URI.create("http://acme.org"))
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(
+                new AvroEventDataExample(1l, "Nome 1", "Descrição 1")))
+            .build();
+    }
+
+    @Test
+    public void should_write_the_same_headers_of_cloudevents_serializer() {
+
+        // setup
+        var event = eventOf("0001");
+
+        var serializer = new CloudEventSerializer();
+        serializer.configure(Map.of(CloudEventSerializer.ENCODING_CONFIG, "BINARY"), false);
+
+        Headers expected = new RecordHeaders();
+        serializer.serialize("meu-topico", expected, event);
+
+        var writer = new CloudEventHeadersWriter(10);
+
+        // act
+        Headers actual = new RecordHeaders();
+        writer.write(event, actual);
+
+        // assert
+        var expectedHeaders = expected.toArray();
+        var actualHeaders = actual.toArray();
+
+        assertEquals(expectedHeaders.length, actualHeaders.length);
+        for(int i = 0; i < expectedHeaders.length; i++){
+            assertEquals(expectedHeaders[i].key(), actualHeaders[i].key());
+            assertArrayEquals(expectedHeaders[i].value(), actualHeaders[i].value());
+        }
+    }
+
+    @Test
+    public void should_write_binary_extensions_as_base64() {
+
+        // setup, the builder has no binary extensions, like the ones read by a reader
+        var base = eventOf("0002");
+        var extensions = new HashMap<String, Object>();
+        base.getExtensionNames().forEach(name -> extensions.put(name, base.getExtension(name)));
+        extensions.put("assinatura", new byte[]{1, 2, 3, (byte)0xfe});
+
+        var event = new CloudEventV1(base.getId(), base.getSource(), base.getType(),
+            base.getDataContentType(), base.getDataSchema(), base.getSubject(), base.getTime(),
+            base.getData(), extensions);
+
+        var writer = new CloudEventHeadersWriter(10);
+
+        // act
+        Headers first = new RecordHeaders();
+        writer.write(event, first);
+
+        Headers second = new RecordHeaders();
+        writer.write(event, second);
+
+        // assert
+        assertEquals("AQID/g==", new String(first.lastHeader("ce_assinatura").value()));
+        assertEquals(CloudEventKeys.attributeOf(event, "assinatura"),
+            new String(first.lastHeader("ce_assinatura").value()));
+        assertNotSame(first.lastHeader("ce_assinatura"), second.lastHeader("ce_assinatura"));
+    }
+
+    @Test
+    public void should_share_the_headers_of_repeated_values() {
+
+        // setup
+        var writer = new CloudEventHeadersWriter(10);
+
+        Headers first = new RecordHeaders();
+        Headers second = new RecordHeaders();
+
+        // act
+        writer.write(eventOf("0001"), first);
+        writer.write(eventOf("0002"), second);
+
+        // assert
+        assertSame(first.lastHeader("ce_specversion"), second.lastHeader("ce_specversion"));
+        assertSame(first.lastHeader("ce_source"), second.lastHeader("ce_source"));
+        assertSame(first.lastHeader("ce_type"), second.lastHeader("ce_type"));
+        assertSame(first.lastHeader("content-type"), second.lastHeader("content-type"));
+        assertSame(first.lastHeader("ce_tenant"), second.lastHeader("ce_tenant"));
+        assertSame(first.lastHeader("ce_retries"), second.lastHeader("ce_retries"));
+
+        assertNotSame(first.lastHeader("ce_id"), second.lastHeader("ce_id"));
+        assertNotSame(first.lastHeader("ce_partitionkey"), second.lastHeader("ce_partitionkey"));
+    }
+
+    @Test
+    public void should_not_share_more_than_the_max_size() {
+
+        // setup
+        var writer = new CloudEventHeadersWriter(2);
+
+        Headers[] headers = new Headers[6];
+        for(int i = 0; i < headers.length; i++){
+            headers[i] = new RecordHeaders();
+
+            // act
+            writer.write(CloudEventBuilder.v1()
+                .withId("000" + i)
+                .withSource(URI.create("/exemplo/enviar"))
+                .withType("exemplo-" + (i % 3))
+                .build(), headers[i]);
+        }
+
+        // assert
+        assertSame(headers[0].lastHeader("ce_type"), headers[3].lastHeader("ce_type"));
+        assertSame(headers[1].lastHeader("ce_type"), headers[4].lastHeader("ce_type"));
+        assertNotSame(headers[2].lastHeader("ce_type"), headers[5].lastHeader("ce_type"));
+        assertArrayEquals("exemplo-2".getBytes(), headers[5].lastHeader("ce_type").value());
+    }
+
+    @Test
+    public void should_not_share_when_max_size_is_zero() {
+
+        // setup
+        var writer = new CloudEventHeadersWriter(0);
+
+        Headers first = new RecordHeaders();
+        Headers second = new RecordHeaders();
+
+        // act
+        writer.write(eventOf("0001"), first);
+        writer.write(eventOf("0002"), second);
+
+        // assert
+        assertNotSame(first.lastHeader("ce_type"), second.lastHeader("ce_type"));
+        assertArrayEquals(first.lastHeader("ce_type").value(), second.lastHeader("ce_type").value());
+    }
+
+    @Test
+    public void should_encode_time_like_cloudevents() {
+
+        var random = new Random(42);
+        var nanos = new int[]{0, 1, 10, 100_000_000, 120_000_000, 123_456_000, 999_999_999};
+        var offsets = new ZoneOffset[]{ZoneOffset.UTC, ZoneOffset.ofHours(-3),
+            ZoneOffset.ofHoursMinutes(5, 30), ZoneOffset.ofHoursMinutesSeconds(1, 2, 3)};
+
+        for(int i = 0; i < 1_000; i++){
+            var time = OffsetDateTime.of(
+                LocalDateTime.of(random.nextInt(10_100), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                    nanos[random.nextInt(nanos.length)]),
+                offsets[random.nextInt(offsets.length)]);
+
+            assertEquals(Time.writeTime(time), new String(CloudEventHeadersWriter.timeOf(time)));
+        }
+    }
+}
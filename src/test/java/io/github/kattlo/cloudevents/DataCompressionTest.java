@@ -0,0 +1,100 @@
+package io.github.kattlo.cloudevents;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class DataCompressionTest {
+
+    private static byte[] payloadOf(int schemaId, byte[] data) {
+        var bytes = new byte[WireFormat.HEADER_SIZE + data.length];
+        WireFormat.writeSchemaId(bytes, schemaId);
+        System.arraycopy(data, 0, bytes, WireFormat.HEADER_SIZE, data.length);
+
+        return bytes;
+    }
+
+    @ParameterizedTest
+    @EnumSource(DataCompression.Codec.class)
+    public void should_compress_just_the_data_keeping_the_header(DataCompression.Codec codec) {
+
+        var payload = payloadOf(42, "Descrição repetida ".repeat(5000)
+            .getBytes(StandardCharsets.UTF_8));
+
+        // act
+        var compressed = DataCompression.compress(codec, payload);
+        var actual = DataCompression.decompress(codec, compressed, Integer.MAX_VALUE);
+
+        // assert
+        assertTrue(compressed.length * 10 < payload.length, "compressed " + compressed.length);
+        assertEquals(42, WireFormat.schemaIdOf(compressed));
+        assertArrayEquals(payload, actual);
+    }
+
+    @ParameterizedTest
+    @EnumSource(DataCompression.Codec.class)
+    public void should_reuse_the_thread_buffers_between_sizes(DataCompression.Codec codec) {
+
+        var random = new Random(42);
+
+        for(int size : new int[]{0, 1, 100_000, 10, 300_000, 7}){
+            var data = new byte[size];
+            random.nextBytes(data);
+            var payload = payloadOf(size, data);
+
+            var compressed = DataCompression.compress(codec, payload);
+
+            assertArrayEquals(payload, DataCompression.decompress(codec, compressed, Integer.MAX_VALUE));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(DataCompression.Codec.class)
+    public void should_throw_when_data_is_truncated(DataCompression.Codec codec) {
+
+        var payload = payloadOf(1, "Descrição ".repeat(1000).getBytes(StandardCharsets.UTF_8));
+        var compressed = DataCompression.compress(codec, payload);
+
+        var truncated = Arrays.copyOf(compressed, compressed.length / 2);
+
+        assertThrows(SerializationException.class, () ->
+            DataCompression.decompress(codec, truncated, Integer.MAX_VALUE));
+    }
+
+    @ParameterizedTest
+    @EnumSource(DataCompression.Codec.class)
+    public void should_throw_when_data_exceeds_the_maximum_size(DataCompression.Codec codec) {
+
+        // setup
+        var payload = payloadOf(1, new byte[16 * 1024 * 1024]);
+        var compressed = DataCompression.compress(codec, payload);
+
+        // act
+        var actual = assertThrows(SerializationException.class, () ->
+            DataCompression.decompress(codec, compressed, 1024 * 1024));
+
+        // assert
+        assertTrue(actual.getMessage().contains("exceeds 1048576 bytes"), actual.getMessage());
+        assertArrayEquals(payload, DataCompression.decompress(codec, compressed, payload.length));
+    }
+
+    @Test
+    public void should_parse_the_codec_of_header_value() {
+
+        assertEquals(DataCompression.Codec.ZSTD, DataCompression.Codec.of(" zstd"));
+        assertEquals("lz4", new String(DataCompression.Codec.LZ4.header().value()));
+
+        assertThrows(IllegalArgumentException.class, () ->
+            DataCompression.Codec.of("brotli"));
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.kattlo.cloudevents;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.cloudevents.CloudEvent;
+import io.cloudevents.core.builder.CloudEventBuilder;
+
+public class FilesystemClaimCheckStoreTest {
+
+    private static final CloudEvent EVENT = CloudEventBuilder.v1()
+        .withId("evento-1")
+        .withSource(URI.create("/exemplo/enviar"))
+        .withType("exemplo.grande")
+        .build();
+
+    @Test
+    public void should_store_and_fetch_the_payload(@TempDir Path dir) throws Exception {
+
+        var store = new FilesystemClaimCheckStore();
+        store.configure(Map.of(FilesystemClaimCheckStore.DIRECTORY_CONFIG, dir.toString()));
+
+        var payload = new byte[]{0, 0, 0, 0, 1, 10, 20, 30};
+
+        // act
+        var reference = store.store("meu-topico-grande", EVENT, payload);
+
+        // assert
+        assertTrue(Path.of(reference).startsWith(dir.resolve("meu-topico-grande")), reference.toString());
+        assertArrayEquals(payload, store.fetch(reference));
+    }
+
+    @Test
+    public void should_not_fetch_outside_of_directory(@TempDir Path dir) throws Exception {
+
+        var store = new FilesystemClaimCheckStore(dir.resolve("grandes"));
+
+        var outside = Files.write(dir.resolve("segredo.avro"), new byte[]{1, 2, 3});
+        var escaping = URI.create(dir.resolve("grandes").toUri() + "../segredo.avro");
+
+        // act & assert
+        assertThrows(IOException.class, () -> store.fetch(outside.toUri()));
+        assertThrows(IOException.class, () -> store.fetch(escaping));
+        assertThrows(IOException.class, () -> store.fetch(URI.create("http://exemplo/segredo.avro")));
+        assertThrows(IOException.class, () -> store.store("..", EVENT, new byte[]{0}));
+    }
+}
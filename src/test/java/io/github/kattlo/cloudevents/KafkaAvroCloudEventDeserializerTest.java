@@ -1,23 +1,40 @@
 package io.github.kattlo.cloudevents;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.avro.SchemaBuilder;
 import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import io.cloudevents.CloudEvent;
 import io.cloudevents.core.builder.CloudEventBuilder;
 import io.cloudevents.kafka.CloudEventSerializer;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
 import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
 import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
 import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
 import org.acme.AvroEventDataExample;
@@ -181,4 +198,1205 @@ public class KafkaAvroCloudEventDeserializerTest {
         serializer.close();
         deserializer.close();
     }
+
+    @Test
+    public void should_deserialize_ce_extensions() {
+
+        // setup
+        var topico = "meu-topico-des";
+
+        var value = new AvroEventDataExample(130l, "Nome 130", "Descrição 130");
+        var data = new AvroCloudEventData<>(value);
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var expected = CloudEventBuilder.v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType(value.getClass().getName())
+            .withExtension("partitionkey", "chave-130")
+            .withExtension("tenant", "acme")
+            .withData(AvroCloudEventData.MIME_TYPE, data)
+            .build();
+
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(topico, headers, expected);
+
+        // act
+        var actual = deserializer.deserialize(topico, headers, bytes);
+
+        // assert
+        assertEquals(expected.getExtensionNames(), actual.getExtensionNames());
+        assertEquals("chave-130", actual.getExtension("partitionkey"));
+        assertEquals("acme", actual.getExtension("tenant"));
+        assertEquals(AvroCloudEventData.MIME_TYPE, actual.getDataContentType());
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_deserialize_the_structured_mode() {
+
+        // setup
+        var topico = "meu-topico-des-estruturado";
+
+        var value = new AvroEventDataExample(140l, "Nome 140", "Descrição 140");
+        var data = new AvroCloudEventData<>(value);
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "STRUCTURED");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "true");
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var expected = CloudEventBuilder.v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType(value.getClass().getName())
+            .withSubject("assunto-140")
+            .withDataSchema(URI.create("http://localhost:8081/schemas/ids/1"))
+            .withTime(OffsetDateTime.parse("2021-03-01T10:15:30.123456Z"))
+            .withExtension("partitionkey", "chave-140")
+            .withExtension("retries", 3)
+            .withExtension("replay", true)
+            .withData(AvroCloudEventData.MIME_TYPE, data)
+            .build();
+
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(topico, headers, expected);
+
+        // act
+        var actual = deserializer.deserialize(topico, headers, bytes);
+
+        // assert
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getSource(), actual.getSource());
+        assertEquals(expected.getType(), actual.getType());
+        assertEquals(expected.getSubject(), actual.getSubject());
+        assertEquals(expected.getDataSchema(), actual.getDataSchema());
+        assertEquals(AvroCloudEventData.MIME_TYPE, actual.getDataContentType());
+        assertEquals(expected.getTime().toInstant(), actual.getTime().toInstant());
+
+        assertEquals(expected.getExtensionNames(), actual.getExtensionNames());
+        assertEquals("chave-140", actual.getExtension("partitionkey"));
+        assertEquals(3, actual.getExtension("retries"));
+        assertEquals(true, actual.getExtension("replay"));
+
+        AvroEventDataExample actualValue = AvroCloudEventData.dataOf(actual.getData());
+        assertEquals(value, actualValue);
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_read_the_structured_time_in_utc_with_microseconds() {
+
+        // setup
+        var topico = "meu-topico-des-estruturado-tempo";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "STRUCTURED");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "true");
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var value = new AvroEventDataExample(141l, "Nome 141", "Descrição 141");
+        var expected = CloudEventBuilder.v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType(value.getClass().getName())
+            .withTime(OffsetDateTime.parse("2021-03-01T07:15:30.123456789-03:00"))
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(value))
+            .build();
+
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(topico, headers, expected);
+
+        // act
+        var actual = deserializer.deserialize(topico, headers, bytes);
+
+        // assert
+        assertEquals(OffsetDateTime.parse("2021-03-01T10:15:30.123456Z"), actual.getTime());
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_report_the_metrics() {
+
+        // setup
+        var topico = "meu-topico-des-metricas";
+
+        var value = new AvroEventDataExample(150l, "Nome 150", "Descrição 150");
+        var data = new AvroCloudEventData<>(value);
+
+        var metrics = new KafkaAvroCloudEventSerializerTest.RecordingMetrics();
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        configs.put(KafkaAvroCloudEventDeserializer.METRICS_CLASS_CONFIG, metrics);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var evento = CloudEventBuilder.v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo.metricas")
+            .withData(AvroCloudEventData.MIME_TYPE, data)
+            .build();
+
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(topico, headers, evento);
+
+        // act
+        deserializer.deserialize(topico, headers, bytes);
+        deserializer.deserialize(topico, headers, bytes);
+
+        assertThrows(SerializationException.class, () ->
+            deserializer.deserialize(topico, headers, new byte[]{1, 2, 3}));
+
+        // assert
+        var expected = topico + ":exemplo.metricas:" + bytes.length + ":"
+            + Metered.headerBytesOf(headers);
+
+        assertEquals(List.of(expected, expected), metrics.deserialized);
+        assertEquals(List.of("getSchemaById"), metrics.registryCalls);
+        assertEquals(List.of("reader:false", "reader:true"), metrics.cacheAccesses);
+        assertEquals(List.of(topico + ":exemplo.metricas:deserialize:SerializationException"),
+            metrics.failures);
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_work_without_schema_registry_using_the_bundle(@TempDir Path dir)
+        throws Exception {
+
+        // setup
+        var topico = "meu-topico-des-offline";
+
+        var online = new MockSchemaRegistryClient();
+        online.register(topico + "-value", new AvroSchema(AvroEventDataExample.getClassSchema()));
+
+        var file = dir.resolve("schemas.json");
+        try(var out = Files.newOutputStream(file)){
+            SchemaBundle.snapshot(online, List.of(topico + "-value")).write(out);
+        }
+
+        var offline = new OfflineSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(offline);
+        var deserializer = new KafkaAvroCloudEventDeserializer(offline);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "true");
+        configs.put(KafkaAvroCloudEventSerializer.SCHEMA_BUNDLE_CONFIG, file.toString());
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var value = new AvroEventDataExample(160l, "Nome 160", "Descrição 160");
+        var evento = CloudEventBuilder.v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo.offline")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(value))
+            .build();
+
+        // act
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(topico, headers, evento);
+        var actual = deserializer.deserialize(topico, headers, bytes);
+
+        // assert
+        AvroEventDataExample actualValue = AvroCloudEventData.dataOf(actual.getData());
+        assertEquals(value, actualValue);
+
+        assertEquals("http://localhost:8081/subjects/" + topico + "-value/versions/1/schema",
+            new String(headers.lastHeader(KafkaAvroCloudEventSerializer.DATASCHEMA_HEADER).value()));
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_decode_data_just_when_accessed_in_lazy_mode() throws Exception {
+
+        // setup
+        var topico = "meu-topico-des";
+
+        var expected = new AvroEventDataExample(130l, "Nome 130", "Descrição 130");
+        var data = new AvroCloudEventData<>(expected);
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "true");
+        configs.put(KafkaAvroCloudEventDeserializer.LAZY_DECODING_CONFIG, "true");
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var evento = CloudEventBuilder.v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType(expected.getClass().getName())
+            .withData(AvroCloudEventData.MIME_TYPE, data)
+            .build();
+
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(topico, headers, evento);
+
+        // act
+        var actual = deserializer.deserialize(topico, headers, bytes);
+
+        // assert
+        assertEquals(evento.getType(), actual.getType());
+
+        var actualData = (AvroCloudEventData<?>)actual.getData();
+        assertFalse(actualData.isDecoded());
+        assertEquals(registry.getId(topico + "-value", new AvroSchema(expected.getSchema())),
+            actualData.getSchemaId());
+
+        assertEquals(expected, actualData.getValue());
+        assertTrue(actualData.isDecoded());
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_retain_the_consumed_payload() {
+
+        // setup
+        var topico = "meu-topico-des";
+
+        var expected = new AvroEventDataExample(130l, "Nome 130", "Descrição 130");
+        var data = new AvroCloudEventData<>(expected);
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "true");
+        configs.put(KafkaAvroCloudEventDeserializer.RETAIN_BYTES_CONFIG, "true");
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var evento = CloudEventBuilder.v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType(expected.getClass().getName())
+            .withData(AvroCloudEventData.MIME_TYPE, data)
+            .build();
+
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(topico, headers, evento);
+
+        // act
+        var actual = deserializer.deserialize(topico, headers, bytes);
+
+        // assert
+        var actualData = (AvroCloudEventData<?>)actual.getData();
+        assertTrue(actualData.isDecoded());
+        assertArrayEquals(bytes, actual.getData().toBytes());
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_deserialize_as_the_reader_class_of_type() {
+
+        // setup
+        var topico = "meu-topico-des";
+        var tipo = "exemplo.criado";
+
+        var expected = new AvroEventDataExample(130l, "Nome 130", "Descrição 130");
+        var generic = new GenericRecordBuilder(expected.getSchema())
+            .set("code", expected.getCode())
+            .set("name", expected.getName())
+            .set("description", expected.getDescription())
+            .build();
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "false");
+        configs.put(KafkaAvroCloudEventDeserializer.READER_CLASSES_CONFIG,
+            tipo + "=" + AvroEventDataExample.class.getName());
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var evento = CloudEventBuilder.v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType(tipo)
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(generic))
+            .build();
+
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(topico, headers, evento);
+
+        // act
+        var actual = deserializer.deserialize(topico, headers, bytes);
+
+        // assert
+        AvroEventDataExample actualValue = AvroCloudEventData.dataOf(actual.getData());
+        assertEquals(expected, actualValue);
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_deserialize_the_projection_of_type(@TempDir Path dir) throws Exception {
+
+        // setup
+        var topico = "meu-topico-projecao";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        var avsc = dir.resolve("projecao.avsc");
+        Files.writeString(avsc, SchemaBuilder.record("AvroEventDataExample")
+            .namespace("org.acme")
+            .fields()
+                .requiredString("name")
+            .endRecord()
+            .toString());
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "true");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        configs.put(KafkaAvroCloudEventDeserializer.READER_SCHEMAS_CONFIG,
+            "exemplo.campos=code;description, exemplo.avsc=" + avsc);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var value = new AvroEventDataExample(190l, "Nome 190", "Descrição 190");
+
+        Headers fieldsHeaders = new RecordHeaders();
+        var fieldsBytes = serializer.serialize(topico, fieldsHeaders, CloudEventBuilder.v1()
+            .withId("0001")
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo.campos")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(value))
+            .build());
+
+        Headers avscHeaders = new RecordHeaders();
+        var avscBytes = serializer.serialize(topico, avscHeaders, CloudEventBuilder.v1()
+            .withId("0002")
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo.avsc")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(value))
+            .build());
+
+        Headers otherHeaders = new RecordHeaders();
+        var otherBytes = serializer.serialize(topico, otherHeaders, CloudEventBuilder.v1()
+            .withId("0003")
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo.completo")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(value))
+            .build());
+
+        // act
+        GenericRecord fields = AvroCloudEventData.dataOf(
+            deserializer.deserialize(topico, fieldsHeaders, fieldsBytes).getData());
+
+        GenericRecord subset = AvroCloudEventData.dataOf(
+            deserializer.deserialize(topico, avscHeaders, avscBytes).getData());
+
+        var other = deserializer.deserialize(topico, otherHeaders, otherBytes);
+
+        // assert
+        assertEquals(2, fields.getSchema().getFields().size());
+        assertEquals(value.getCode(), fields.get("code"));
+        assertEquals(value.getDescription(), fields.get("description").toString());
+
+        assertEquals(1, subset.getSchema().getFields().size());
+        assertEquals(value.getName(), subset.get("name").toString());
+
+        assertEquals(value, AvroCloudEventData.dataOf(other.getData()));
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_throw_when_type_has_reader_schema_and_class() {
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventDeserializer.READER_CLASSES_CONFIG,
+            "exemplo.criado=" + AvroEventDataExample.class.getName());
+        configs.put(KafkaAvroCloudEventDeserializer.READER_SCHEMAS_CONFIG,
+            "exemplo.criado=code");
+
+        var deserializer = new KafkaAvroCloudEventDeserializer(new MockSchemaRegistryClient());
+
+        assertThrows(IllegalArgumentException.class, () ->
+            deserializer.configure(configs, Boolean.FALSE));
+
+        deserializer.close();
+    }
+
+    @Test
+    public void should_throw_when_reader_class_is_not_specific_record() {
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventDeserializer.READER_CLASSES_CONFIG,
+            "exemplo.criado=" + String.class.getName());
+
+        var deserializer = new KafkaAvroCloudEventDeserializer(new MockSchemaRegistryClient());
+
+        assertThrows(IllegalArgumentException.class, () ->
+            deserializer.configure(configs, Boolean.FALSE));
+
+        deserializer.close();
+    }
+
+    @Test
+    public void should_not_decode_the_records_rejected_by_the_filter() {
+
+        // setup
+        var topico = "meu-topico-filtro";
+
+        var metrics = new KafkaAvroCloudEventSerializerTest.RecordingMetrics();
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        configs.put(KafkaAvroCloudEventDeserializer.METRICS_CLASS_CONFIG, metrics);
+        configs.put(KafkaAvroCloudEventDeserializer.FILTER_TYPES_CONFIG,
+            "exemplo.aceito, exemplo.outro");
+        configs.put(KafkaAvroCloudEventDeserializer.FILTER_SOURCE_PREFIX_CONFIG, "/exemplo/");
+        configs.put(KafkaAvroCloudEventDeserializer.FILTER_EXTENSIONS_CONFIG, "tenant=acme");
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var value = new AvroEventDataExample(160l, "Nome 160", "Descrição 160");
+
+        Headers rejectedHeaders = new RecordHeaders();
+        var rejectedBytes = serializer.serialize(topico, rejectedHeaders, CloudEventBuilder.v1()
+            .withId("0001")
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo.rejeitado")
+            .withExtension("tenant", "acme")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(value))
+            .build());
+
+        Headers acceptedHeaders = new RecordHeaders();
+        var acceptedBytes = serializer.serialize(topico, acceptedHeaders, CloudEventBuilder.v1()
+            .withId("0002")
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo.aceito")
+            .withExtension("tenant", "acme")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(value))
+            .build());
+
+        // act
+        var rejected = deserializer.deserialize(topico, rejectedHeaders, rejectedBytes);
+
+        // assert
+        assertEquals("0001", rejected.getId());
+        assertEquals("exemplo.rejeitado", rejected.getType());
+        assertEquals("acme", rejected.getExtension("tenant"));
+        assertNull(rejected.getData());
+
+        assertEquals(List.of(), metrics.registryCalls);
+        assertEquals(List.of(), metrics.cacheAccesses);
+        assertEquals(List.of(topico + ":exemplo.rejeitado"), metrics.filtered);
+
+        // act
+        var accepted = deserializer.deserialize(topico, acceptedHeaders, acceptedBytes);
+
+        // assert
+        assertEquals("0002", accepted.getId());
+        assertEquals("acme", accepted.getExtension("tenant"));
+        assertTrue(accepted.getDataSchema().toString().contains(topico));
+        assertEquals(value.getCode(),
+            ((GenericRecord)AvroCloudEventData.dataOf(accepted.getData())).get("code"));
+
+        assertEquals(List.of("getSchemaById"), metrics.registryCalls);
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_return_null_for_the_records_rejected_by_the_filter() {
+
+        // setup
+        var topico = "meu-topico-filtro-null";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        configs.put(KafkaAvroCloudEventDeserializer.FILTER_CLASS_CONFIG,
+            (CloudEventFilter)attributes -> attributes.getSubject() != null);
+        configs.put(KafkaAvroCloudEventDeserializer.FILTER_REJECTED_CONFIG, "null");
+        deserializer.configure(configs, Boolean.FALSE);
+
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(topico, headers, CloudEventBuilder.v1()
+            .withId("0001")
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo.sem.assunto")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(
+                new AvroEventDataExample(170l, "Nome 170", "Descrição 170")))
+            .build());
+
+        // act
+        var actual = deserializer.deserialize(topico, headers, bytes);
+
+        // assert
+        assertNull(actual);
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_fetch_the_writer_schema_once_per_id() throws Exception {
+
+        // setup
+        var topico = "meu-topico-por-id";
+
+        var registry = new CountingSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        configs.put(KafkaAvroCloudEventDeserializer.READER_CLASSES_CONFIG,
+            "exemplo.especifico=" + AvroEventDataExample.class.getName());
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var genericSchema = SchemaBuilder.record("Generico")
+            .namespace("org.acme")
+            .fields()
+                .requiredString("nome")
+            .endRecord();
+
+        Headers specificHeaders = new RecordHeaders();
+        var specificBytes = serializer.serialize(topico, specificHeaders, CloudEventBuilder.v1()
+            .withId("0001")
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo.especifico")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(
+                new AvroEventDataExample(180l, "Nome 180", "Descrição 180")))
+            .build());
+
+        Headers genericHeaders = new RecordHeaders();
+        var genericBytes = serializer.serialize(topico, genericHeaders, CloudEventBuilder.v1()
+            .withId("0002")
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo.generico")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(
+                new GenericRecordBuilder(genericSchema).set("nome", "Nome 181").build()))
+            .build());
+
+        // act
+        var first = deserializer.deserialize(topico, specificHeaders, specificBytes);
+        var failures = new AtomicInteger();
+
+        var threads = new Thread[4];
+
+        for(int t = 0; t < threads.length; t++){
+            threads[t] = new Thread(() -> {
+                for(int i = 0; i < 1000; i++){
+                    var specific = deserializer.deserialize(topico, specificHeaders, specificBytes);
+                    var generic = deserializer.deserialize(topico, genericHeaders, genericBytes);
+
+                    if(!(AvroCloudEventData.dataOf(specific.getData()) instanceof AvroEventDataExample)
+                        || !(AvroCloudEventData.dataOf(generic.getData()) instanceof GenericRecord)
+                        || first.getDataSchema() != specific.getDataSchema()){
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+
+        for(Thread thread : threads){
+            thread.join();
+        }
+
+        // assert
+        assertEquals(0, failures.get());
+        assertEquals(2, registry.schemaByIdCalls.get());
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_decompress_the_data_compressed_by_type() {
+
+        // setup
+        var topico = "meu-topico-comprimido";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "true");
+        configs.put(KafkaAvroCloudEventSerializer.COMPRESSION_TYPES_CONFIG,
+            "exemplo.grande=deflate");
+        configs.put(KafkaAvroCloudEventSerializer.COMPRESSION_THRESHOLD_BYTES_CONFIG, "1024");
+        configs.put(KafkaAvroCloudEventDeserializer.RETAIN_BYTES_CONFIG, "true");
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var grande = new AvroEventDataExample(190l, "Nome 190", "Descrição 190 ".repeat(2000));
+        var pequeno = new AvroEventDataExample(191l, "Nome 191", "Descrição 191");
+
+        Headers grandeHeaders = new RecordHeaders();
+        Headers pequenoHeaders = new RecordHeaders();
+        Headers outroHeaders = new RecordHeaders();
+
+        // act
+        var grandeBytes = serializer.serialize(topico, grandeHeaders, eventOf("exemplo.grande", grande));
+        var pequenoBytes = serializer.serialize(topico, pequenoHeaders, eventOf("exemplo.grande", pequeno));
+        var outroBytes = serializer.serialize(topico, outroHeaders, eventOf("exemplo.outro", grande));
+
+        var actual = deserializer.deserialize(topico, grandeHeaders, grandeBytes);
+
+        // assert
+        assertEquals("deflate", new String(grandeHeaders.lastHeader(DataCompression.HEADER).value()));
+        assertTrue(grandeBytes.length * 10 < outroBytes.length,
+            grandeBytes.length + " " + outroBytes.length);
+        assertEquals(WireFormat.schemaIdOf(outroBytes), WireFormat.schemaIdOf(grandeBytes));
+
+        assertNull(pequenoHeaders.lastHeader(DataCompression.HEADER));
+        assertNull(outroHeaders.lastHeader(DataCompression.HEADER));
+
+        assertEquals(grande, AvroCloudEventData.dataOf(actual.getData()));
+        assertNull(actual.getExtension(DataCompression.EXTENSION));
+        assertArrayEquals(outroBytes, actual.getData().toBytes());
+
+        assertEquals(pequeno, AvroCloudEventData.dataOf(
+            deserializer.deserialize(topico, pequenoHeaders, pequenoBytes).getData()));
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_decompress_just_when_accessed_in_lazy_mode() {
+
+        // setup
+        var topico = "meu-topico-comprimido-lazy";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "true");
+        configs.put(KafkaAvroCloudEventSerializer.COMPRESSION_TYPES_CONFIG,
+            "exemplo.grande=zstd");
+        configs.put(KafkaAvroCloudEventSerializer.COMPRESSION_THRESHOLD_BYTES_CONFIG, "1024");
+        configs.put(KafkaAvroCloudEventDeserializer.LAZY_DECODING_CONFIG, "true");
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var grande = new AvroEventDataExample(192l, "Nome 192", "Descrição 192 ".repeat(2000));
+
+        Headers headers = new RecordHeaders();
+        Headers outroHeaders = new RecordHeaders();
+
+        var bytes = serializer.serialize(topico, headers, eventOf("exemplo.grande", grande));
+        var outroBytes = serializer.serialize(topico, outroHeaders, eventOf("exemplo.outro", grande));
+
+        // act
+        var actual = deserializer.deserialize(topico, headers, bytes);
+        var data = (AvroCloudEventData<?>)actual.getData();
+        var antes = data.toString();
+
+        // assert
+        assertNotNull(headers.lastHeader(DataCompression.HEADER));
+        assertTrue(antes.contains("compressed"), antes);
+        assertFalse(data.isDecoded());
+
+        assertArrayEquals(outroBytes, data.toBytes());
+        assertEquals(grande, AvroCloudEventData.dataOf(data));
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_throw_when_the_decompressed_payload_exceeds_the_maximum() {
+
+        // setup
+        var topico = "meu-topico-comprimido-maximo";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "true");
+        configs.put(KafkaAvroCloudEventSerializer.COMPRESSION_TYPES_CONFIG,
+            "exemplo.grande=deflate");
+        configs.put(KafkaAvroCloudEventDeserializer.MAX_DECOMPRESSED_BYTES_CONFIG, "4096");
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var grande = new AvroEventDataExample(193l, "Nome 193", "Descrição 193 ".repeat(2000));
+
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(topico, headers, eventOf("exemplo.grande", grande));
+
+        // act
+        var actual = assertThrows(SerializationException.class, () ->
+            deserializer.deserialize(topico, headers, bytes));
+
+        // assert
+        assertTrue(bytes.length < 4096, "compressed " + bytes.length);
+        assertTrue(actual.getMessage().contains("exceeds 4096 bytes"), actual.getMessage());
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_throw_when_the_dataschema_of_known_schema_is_malformed() {
+
+        // setup
+        var topico = "meu-topico-dataschema";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "true");
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var valor = new AvroEventDataExample(195l, "Nome 195", "Descrição 195");
+
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(topico, headers, eventOf("exemplo", valor));
+
+        // the writer schema is known from now on
+        deserializer.deserialize(topico, headers, bytes);
+
+        headers.remove(KafkaAvroCloudEventSerializer.DATASCHEMA_HEADER);
+        headers.add(KafkaAvroCloudEventSerializer.DATASCHEMA_HEADER,
+            "http://localhost:8081/subjects/{meu-topico}".getBytes());
+
+        // act
+        var actual = assertThrows(SerializationException.class, () ->
+            deserializer.deserialize(topico, headers, bytes));
+
+        // assert
+        assertTrue(actual.getMessage().contains("ce_dataschema"), actual.getMessage());
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_throw_when_compression_codec_is_not_supported() {
+
+        // setup
+        var registry = new MockSchemaRegistryClient();
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        deserializer.configure(configs, Boolean.FALSE);
+
+        Headers headers = new RecordHeaders();
+        headers.add(CloudEventHeadersReader.SPECVERSION_HEADER, "1.0".getBytes());
+        headers.add(DataCompression.HEADER, "brotli".getBytes());
+
+        // act
+        var actual = assertThrows(SerializationException.class, () ->
+            deserializer.deserialize("meu-topico-comprimido", headers,
+                new byte[]{0, 0, 0, 0, 1, 2}));
+
+        // assert
+        assertTrue(actual.getMessage().contains("brotli"), actual.getMessage());
+
+        deserializer.close();
+    }
+
+    @Test
+    public void should_fetch_the_offloaded_data_just_when_accessed(@TempDir Path dir) {
+
+        // setup
+        var topico = "meu-topico-grande";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "true");
+        configs.put(KafkaAvroCloudEventSerializer.MAX_PAYLOAD_BYTES_CONFIG, "1024");
+        configs.put(KafkaAvroCloudEventSerializer.CLAIMCHECK_STORE_CONFIG,
+            FilesystemClaimCheckStore.class.getName());
+        configs.put(FilesystemClaimCheckStore.DIRECTORY_CONFIG, dir.toString());
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var grande = new AvroEventDataExample(192l, "Nome 192", "Descrição 192 ".repeat(2000));
+        var pequeno = new AvroEventDataExample(193l, "Nome 193", "Descrição 193");
+
+        Headers grandeHeaders = new RecordHeaders();
+        Headers pequenoHeaders = new RecordHeaders();
+
+        // act
+        var grandeBytes = serializer.serialize(topico, grandeHeaders, eventOf("exemplo.grande", grande));
+        var pequenoBytes = serializer.serialize(topico, pequenoHeaders, eventOf("exemplo.grande", pequeno));
+
+        var actual = deserializer.deserialize(topico, grandeHeaders, grandeBytes);
+        var data = (AvroCloudEventData<?>)actual.getData();
+
+        // assert
+        assertEquals(WireFormat.HEADER_SIZE, grandeBytes.length);
+        assertNotNull(grandeHeaders.lastHeader(ClaimCheckStore.HEADER));
+        assertNull(pequenoHeaders.lastHeader(ClaimCheckStore.HEADER));
+
+        assertFalse(data.isDecoded());
+        assertNull(actual.getExtension(ClaimCheckStore.EXTENSION));
+        assertEquals(WireFormat.schemaIdOf(pequenoBytes), data.getSchemaId());
+        assertEquals(grande, AvroCloudEventData.dataOf(data));
+
+        assertEquals(pequeno, AvroCloudEventData.dataOf(
+            deserializer.deserialize(topico, pequenoHeaders, pequenoBytes).getData()));
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_throw_when_there_is_no_claim_check_store() {
+
+        // setup
+        var registry = new MockSchemaRegistryClient();
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        deserializer.configure(configs, Boolean.FALSE);
+
+        Headers headers = new RecordHeaders();
+        headers.add(CloudEventHeadersReader.SPECVERSION_HEADER, "1.0".getBytes());
+        headers.add(ClaimCheckStore.HEADER, "file:///tmp/grande.avro".getBytes());
+
+        // act
+        var actual = assertThrows(SerializationException.class, () ->
+            deserializer.deserialize("meu-topico-grande", headers,
+                new byte[]{0, 0, 0, 0, 1}));
+
+        // assert
+        assertTrue(actual.getMessage().contains(ClaimCheckStore.HEADER), actual.getMessage());
+
+        deserializer.close();
+    }
+
+    @Test
+    public void should_deserialize_each_type_as_its_schema(@TempDir Path dir) throws Exception {
+
+        // setup
+        var topico = "meu-topico-tipos";
+        var pedido = SchemaBuilder.record("Pedido")
+            .namespace("org.acme.tipos")
+            .fields()
+                .requiredString("numero")
+            .endRecord();
+        var avsc = Files.writeString(dir.resolve("pedido.avsc"), pedido.toString());
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "false");
+        configs.put(KafkaAvroCloudEventSerializer.TYPES_CONFIG, Map.of(
+            "exemplo.criado", AvroEventDataExample.class,
+            "pedido.criado", avsc.toString()));
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var exemplo = new AvroEventDataExample(197l, "Nome 197", "Descrição 197");
+        var umPedido = new GenericRecordBuilder(pedido).set("numero", "p-197").build();
+
+        Headers exemploHeaders = new RecordHeaders();
+        Headers pedidoHeaders = new RecordHeaders();
+
+        var exemploBytes = serializer.serialize(topico, exemploHeaders, eventOf("exemplo.criado", exemplo));
+        var pedidoBytes = serializer.serialize(topico, pedidoHeaders, CloudEventBuilder.v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("pedido.criado")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(umPedido))
+            .build());
+
+        // act
+        var actualExemplo = deserializer.deserialize(topico, exemploHeaders, exemploBytes);
+        var actualPedido = deserializer.deserialize(topico, pedidoHeaders, pedidoBytes);
+
+        // assert
+        assertEquals(exemplo, AvroCloudEventData.dataOf(actualExemplo.getData()));
+
+        GenericRecord pedidoData = AvroCloudEventData.dataOf(actualPedido.getData());
+        assertEquals(pedido, pedidoData.getSchema());
+        assertEquals("p-197", pedidoData.get("numero").toString());
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    public void should_throw_when_type_has_schema_and_reader_class() {
+
+        var deserializer = new KafkaAvroCloudEventDeserializer(new MockSchemaRegistryClient());
+
+        Map<String, Object> configs = new HashMap<>();
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventDeserializer.TYPES_CONFIG,
+            "exemplo.criado=" + AvroEventDataExample.class.getName());
+        configs.put(KafkaAvroCloudEventDeserializer.READER_CLASSES_CONFIG,
+            "exemplo.criado=" + AvroEventDataExample.class.getName());
+
+        assertThrows(IllegalArgumentException.class, () ->
+            deserializer.configure(configs, Boolean.FALSE));
+    }
+
+    @Test
+    public void should_deserialize_without_configure() {
+
+        // setup
+        var topico = "meu-topico-sem-configurar";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var valor = new AvroEventDataExample(198l, "Nome 198", "Descrição 198");
+
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(topico, headers, eventOf("exemplo.criado", valor));
+
+        // act
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+        var actual = deserializer.deserialize(topico, headers, bytes);
+
+        // assert
+        GenericRecord data = AvroCloudEventData.dataOf(actual.getData());
+        assertEquals("Nome 198", data.get("name").toString());
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    private static CloudEvent eventOf(String type, AvroEventDataExample data) {
+        return CloudEventBuilder.v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType(type)
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(data))
+            .build();
+    }
+
+    private static class CountingSchemaRegistryClient extends MockSchemaRegistryClient {
+
+        final AtomicInteger schemaByIdCalls = new AtomicInteger();
+
+        @Override
+        public synchronized ParsedSchema getSchemaById(int id)
+            throws IOException, RestClientException {
+
+            schemaByIdCalls.incrementAndGet();
+            return super.getSchemaById(id);
+        }
+    }
+
+    private static class OfflineSchemaRegistryClient extends MockSchemaRegistryClient {
+
+        @Override
+        public synchronized int register(String subject, ParsedSchema schema) throws IOException {
+            throw new IOException("registry down");
+        }
+
+        @Override
+        public synchronized int getId(String subject, ParsedSchema schema) throws IOException {
+            throw new IOException("registry down");
+        }
+
+        @Override
+        public synchronized int getVersion(String subject, ParsedSchema schema) throws IOException {
+            throw new IOException("registry down");
+        }
+
+        @Override
+        public synchronized ParsedSchema getSchemaById(int id) throws IOException {
+            throw new IOException("registry down");
+        }
+    }
 }
@@ -1,36 +1,59 @@
 package io.github.kattlo.cloudevents;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.header.internals.RecordHeaders;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
+import io.cloudevents.CloudEvent;
 import io.cloudevents.core.builder.CloudEventBuilder;
 import io.cloudevents.kafka.CloudEventSerializer;
+import io.confluent.kafka.schemaregistry.ParsedSchema;
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
 import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.schemaregistry.client.rest.exceptions.RestClientException;
 import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
 import org.acme.AvroEventDataExample;
 
 public class KafkaAvroCloudEventSerializerTest {
 
     @Test
-    public void should_throw_when_encoding_is_not_binary() {
+    public void should_throw_when_encoding_is_not_set() {
 
         // setup
         Map<String, Object> configs = new HashMap<>();
 
-        configs.put(CloudEventSerializer.ENCODING_CONFIG, "STRUCTURED");
-
         configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
         configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
             "http://localhost:8081");
@@ -45,6 +68,45 @@ public class KafkaAvroCloudEventSerializerTest {
         assertTrue(actual.getMessage().contains("not supported"));
     }
 
+    @Test
+    public void should_write_the_whole_event_in_structured_mode() throws Exception {
+
+        // setup
+        var topico = "meu-topico-estruturado";
+        var subject = topico + "-value";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "STRUCTURED");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var valor = new AvroEventDataExample(310l, "Nome 310", "Descrição 310");
+
+        Headers headers = new RecordHeaders();
+
+        // act
+        var serialized = serializer.serialize(topico, headers, eventOf(valor));
+
+        // assert
+        assertNotNull(serialized);
+        assertEquals(AvroCloudEventData.STRUCTURED_MIME_TYPE,
+            new String(headers.lastHeader("content-type").value()));
+        assertEquals(null, headers.lastHeader("ce_id"));
+
+        var schema = registry.getSchemaById(WireFormat.schemaIdOf(serialized));
+        assertEquals(AvroEventDataExample.class.getName() + ".CloudEvent", schema.name());
+        assertEquals(1, registry.getAllVersions(subject).size());
+
+        serializer.close();
+    }
+
     @Test
     public void should_initialize(){
 
@@ -213,4 +275,1082 @@ public class KafkaAvroCloudEventSerializerTest {
 
         serializer.close();
     }
+
+    @Test
+    public void should_resolve_the_schema_version_once_per_schema() {
+
+        // setup
+        var topico = "meu-topico";
+
+        var registry = new CountingSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var valor = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+        var data = new AvroCloudEventData<>(valor);
+
+        var evento = CloudEventBuilder
+            .v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType(valor.getClass().getName())
+            .withTime(OffsetDateTime.now())
+            .withData("application/avro", data)
+            .build();
+
+        // act
+        for(int i = 0; i < 100_000; i++){
+            serializer.serialize(topico, new RecordHeaders(), evento);
+        }
+
+        // assert
+        assertEquals(0, registry.allVersionsCalls.get());
+        assertEquals(1, registry.versionCalls.get());
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_resolve_the_schema_again_when_expired() throws Exception {
+
+        // setup
+        var topico = "meu-topico-expira";
+
+        var registry = new CountingSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.VERSION_CACHE_TTL_MS_CONFIG, "20");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var evento = eventOf(new GenericRecordBuilder(AvroEventDataExample.getClassSchema())
+            .set("code", 301l)
+            .set("name", "Nome 301")
+            .set("description", "Descrição 301")
+            .build());
+
+        // act
+        serializer.serialize(topico, new RecordHeaders(), evento);
+        serializer.serialize(topico, new RecordHeaders(), evento);
+        var registerCalls = registry.registerCalls.get();
+
+        Thread.sleep(50);
+        serializer.serialize(topico, new RecordHeaders(), evento);
+
+        // assert
+        assertEquals(1, registerCalls);
+        assertEquals(2, registry.registerCalls.get());
+        assertEquals(2, registry.versionCalls.get());
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_reuse_the_ce_dataschema_header() {
+
+        // setup
+        var topico = "meu-topico";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var valor = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+        var data = new AvroCloudEventData<>(valor);
+
+        var evento = CloudEventBuilder
+            .v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType(valor.getClass().getName())
+            .withTime(OffsetDateTime.now())
+            .withData("application/avro", data)
+            .build();
+
+        // act
+        Headers first = new RecordHeaders();
+        serializer.serialize(topico, first, evento);
+
+        Headers second = new RecordHeaders();
+        serializer.serialize(topico, second, evento);
+
+        // assert
+        assertSame(first.lastHeader(KafkaAvroCloudEventSerializer.DATASCHEMA_HEADER),
+            second.lastHeader(KafkaAvroCloudEventSerializer.DATASCHEMA_HEADER));
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_refresh_the_ce_dataschema_when_schema_id_changes() {
+
+        // setup
+        var topico = "meu-topico";
+        var expected = "http://localhost:8081/subjects/" + topico + "-value/versions/2/schema";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var v1 = SchemaBuilder.record("Exemplo").namespace("org.acme")
+            .fields()
+            .requiredLong("code")
+            .endRecord();
+
+        var v2 = SchemaBuilder.record("Exemplo").namespace("org.acme")
+            .fields()
+            .requiredLong("code")
+            .optionalString("name")
+            .endRecord();
+
+        serializer.serialize(topico, new RecordHeaders(), eventOf(
+            new GenericRecordBuilder(v1).set("code", 1l).build()));
+
+        // act
+        Headers headers = new RecordHeaders();
+        serializer.serialize(topico, headers, eventOf(
+            new GenericRecordBuilder(v2).set("code", 2l).build()));
+
+        // assert
+        var actual = new String(headers.lastHeader(
+            KafkaAvroCloudEventSerializer.DATASCHEMA_HEADER).value());
+
+        assertEquals(expected, actual);
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_keep_the_ce_dataschema_of_each_generic_schema() {
+
+        // setup
+        var topico = "meu-topico-genericos";
+
+        var metrics = new RecordingMetrics();
+        var serializer = new KafkaAvroCloudEventSerializer(new MockSchemaRegistryClient());
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.METRICS_CLASS_CONFIG, metrics);
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var pedido = SchemaBuilder.record("Pedido").namespace("org.acme.tipos")
+            .fields()
+            .requiredString("numero")
+            .endRecord();
+
+        var cliente = SchemaBuilder.record("Cliente").namespace("org.acme.tipos")
+            .fields()
+            .requiredString("nome")
+            .endRecord();
+
+        // act
+        for(int i = 0; i < 3; i++){
+            serializer.serialize(topico, new RecordHeaders(), eventOf(
+                new GenericRecordBuilder(pedido).set("numero", "p-" + i).build()));
+            serializer.serialize(topico, new RecordHeaders(), eventOf(
+                new GenericRecordBuilder(cliente).set("nome", "Nome " + i).build()));
+        }
+
+        // assert
+        assertEquals(2, metrics.cacheAccesses.stream()
+            .filter("dataschema:false"::equals)
+            .count());
+        assertEquals(4, metrics.cacheAccesses.stream()
+            .filter("dataschema:true"::equals)
+            .count());
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_write_the_raw_payload_verbatim_in_passthrough_mode() {
+
+        // setup
+        var origem = "meu-topico";
+        var destino = "outro-topico";
+        var expected = "http://localhost:8081/subjects/" + destino + "-value/versions/1/schema";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        configs.put(KafkaAvroCloudEventDeserializer.LAZY_DECODING_CONFIG, "true");
+        configs.put(KafkaAvroCloudEventSerializer.PASSTHROUGH_CONFIG, "true");
+
+        serializer.configure(configs, Boolean.FALSE);
+        deserializer.configure(configs, Boolean.FALSE);
+
+        var valor = new AvroEventDataExample(300l, "Nome 300", "Descrição 300");
+
+        var evento = CloudEventBuilder
+            .v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType(valor.getClass().getName())
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(valor))
+            .build();
+
+        Headers consumed = new RecordHeaders();
+        var bytes = serializer.serialize(origem, consumed, evento);
+
+        var roteado = CloudEventBuilder
+            .from(deserializer.deserialize(origem, consumed, bytes))
+            .withExtension("rota", destino)
+            .build();
+
+        // act
+        Headers headers = new RecordHeaders();
+        var actual = serializer.serialize(destino, headers, roteado);
+
+        // assert
+        assertArrayEquals(bytes, actual);
+        assertFalse(((AvroCloudEventData<?>)roteado.getData()).isDecoded());
+
+        assertEquals(destino, new String(headers.lastHeader("ce_rota").value()));
+        assertEquals(expected, new String(headers.lastHeader(
+            KafkaAvroCloudEventSerializer.DATASCHEMA_HEADER).value()));
+
+        serializer.close();
+        deserializer.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"datacompression", "claimcheck"})
+    public void should_throw_when_the_extension_is_reserved(String extensao) {
+
+        // setup
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var valor = new AvroEventDataExample(194l, "Nome 194", "Descrição 194");
+        var evento = CloudEventBuilder
+            .v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType(valor.getClass().getName())
+            .withExtension(extensao, "zstd")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(valor))
+            .build();
+
+        // act
+        var actual = assertThrows(SerializationException.class, () ->
+            serializer.serialize("meu-topico-reservado", new RecordHeaders(), evento));
+
+        // assert
+        assertTrue(actual.getMessage().contains("ce_" + extensao), actual.getMessage());
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_serialize_a_batch_as_the_single_serialize_does() {
+
+        // setup
+        var topico = "meu-topico-lote";
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+        var single = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+        single.configure(configs, Boolean.FALSE);
+
+        var generic = SchemaBuilder.record("Exemplo").namespace("org.acme")
+            .fields()
+            .requiredLong("code")
+            .endRecord();
+
+        var events = List.of(
+            eventOf(new AvroEventDataExample(1l, "Nome 1", "Descrição 1")),
+            eventOf(new GenericRecordBuilder(generic).set("code", 2l).build()),
+            eventOf(new AvroEventDataExample(3l, "Nome 3", "Descrição 3")));
+
+        // act
+        var actual = serializer.serializeAll(topico, events);
+
+        // assert
+        assertEquals(events.size(), actual.size());
+        for(int i = 0; i < events.size(); i++){
+            Headers headers = new RecordHeaders();
+            var expected = single.serialize(topico, headers, events.get(i));
+
+            assertArrayEquals(expected, actual.get(i).getValue());
+            assertArrayEquals(headers.toArray(), actual.get(i).getHeaders().toArray());
+        }
+
+        var record = actual.get(0).toProducerRecord(topico, "chave");
+        assertEquals(topico, record.topic());
+        assertEquals("chave", record.key());
+        assertSame(actual.get(0).getValue(), record.value());
+        assertArrayEquals(actual.get(0).getHeaders().toArray(), record.headers().toArray());
+
+        serializer.close();
+        single.close();
+    }
+
+    @Test
+    public void should_report_the_metrics() {
+
+        // setup
+        var topico = "meu-topico-metricas";
+
+        var metrics = new RecordingMetrics();
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.METRICS_CLASS_CONFIG, metrics);
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var valor = new AvroEventDataExample(320l, "Nome 320", "Descrição 320");
+
+        // act
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(topico, headers, eventOf(valor));
+        serializer.serialize(topico, new RecordHeaders(), eventOf(valor));
+
+        assertThrows(IllegalArgumentException.class, () ->
+            serializer.serialize(topico, new RecordHeaders(), CloudEventBuilder.v1()
+                .withId("1")
+                .withSource(URI.create("/exemplo"))
+                .withType("sem-dados")
+                .build()));
+
+        // assert
+        assertEquals(List.of(topico + ":exemplo:" + bytes.length + ":" + Metered.headerBytesOf(headers),
+            topico + ":exemplo:" + bytes.length + ":" + Metered.headerBytesOf(headers)),
+            metrics.serialized);
+        assertEquals(List.of("register", "getVersion"), metrics.registryCalls);
+        assertEquals(List.of("id:false", "dataschema:false", "version:false",
+            "id:true", "dataschema:true"), metrics.cacheAccesses);
+        assertEquals(List.of(topico + ":sem-dados:serialize:IllegalArgumentException"),
+            metrics.failures);
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_preload_the_schemas_during_configure() {
+
+        // setup
+        var topico = "meu-topico-preload";
+
+        var metrics = new RecordingMetrics();
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.METRICS_CLASS_CONFIG, metrics);
+        configs.put(KafkaAvroCloudEventSerializer.PRELOAD_TOPICS_CONFIG, topico);
+        configs.put(KafkaAvroCloudEventSerializer.PRELOAD_SCHEMAS_CONFIG,
+            AvroEventDataExample.class.getName());
+
+        // act
+        serializer.configure(configs, Boolean.FALSE);
+
+        // assert
+        assertEquals(List.of("register", "getVersion"), metrics.registryCalls);
+
+        metrics.registryCalls.clear();
+        metrics.cacheAccesses.clear();
+
+        serializer.serialize(topico, new RecordHeaders(), eventOf(
+            new AvroEventDataExample(330l, "Nome 330", "Descrição 330")));
+
+        assertEquals(List.of(), metrics.registryCalls);
+        assertEquals(List.of("id:true", "dataschema:true"), metrics.cacheAccesses);
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_preload_the_schema_files_async(@TempDir Path dir) throws Exception {
+
+        // setup
+        var topico = "meu-topico-preload-async";
+
+        var v1 = SchemaBuilder.record("Exemplo").namespace("org.acme")
+            .fields()
+            .requiredLong("code")
+            .endRecord();
+
+        var v2 = SchemaBuilder.record("Outro").namespace("org.acme")
+            .fields()
+            .requiredString("name")
+            .endRecord();
+
+        Files.writeString(dir.resolve("exemplo.avsc"), v1.toString());
+        Files.writeString(dir.resolve("outro.avsc"), v2.toString());
+
+        var metrics = new RecordingMetrics();
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.METRICS_CLASS_CONFIG, metrics);
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var schemas = AvroSchemas.load("schemas", List.of(dir.toString()));
+
+        // act
+        serializer.preloadAsync(topico, schemas).get();
+
+        // assert
+        assertEquals(List.of(v1, v2), schemas);
+        assertEquals(2, registry.getAllVersions(topico + "-value").size());
+
+        metrics.registryCalls.clear();
+
+        serializer.serialize(topico, new RecordHeaders(), eventOf(
+            new GenericRecordBuilder(v1).set("code", 1l).build()));
+
+        assertEquals(List.of(), metrics.registryCalls);
+
+        serializer.close();
+    }
+
+    private static KafkaAvroCloudEventSerializer keySerializerOf(
+        MockSchemaRegistryClient registry, Object attributes, String format) {
+
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.KEY_ATTRIBUTES_CONFIG, attributes);
+        configs.put(KafkaAvroCloudEventSerializer.KEY_FORMAT_CONFIG, format);
+
+        serializer.configure(configs, Boolean.TRUE);
+
+        return serializer;
+    }
+
+    private static CloudEvent keyedEventOf(String subject, String partitionkey) {
+        var builder = CloudEventBuilder.v1(eventOf(
+            new AvroEventDataExample(330l, "Nome 330", "Descrição 330")));
+
+        if(null != subject){
+            builder.withSubject(subject);
+        }
+        if(null != partitionkey){
+            builder.withExtension("partitionkey", partitionkey);
+        }
+
+        return builder.build();
+    }
+
+    @Test
+    public void should_write_the_key_of_one_attribute_as_avro_string() throws Exception {
+
+        // setup
+        var topico = "meu-topico-chave";
+        var registry = new MockSchemaRegistryClient();
+        var serializer = keySerializerOf(registry, "subject", "AVRO");
+
+        Headers headers = new RecordHeaders();
+
+        // act
+        var key = serializer.serialize(topico, headers, keyedEventOf("pedido-1", "p1"));
+        var again = serializer.serialize(topico, headers, keyedEventOf("pedido-1", "p2"));
+
+        // assert
+        var schemaId = WireFormat.schemaIdOf(key);
+        assertEquals("\"string\"", registry.getSchemaById(schemaId).canonicalString());
+        assertEquals(List.of(1), registry.getAllVersions(topico + "-key"));
+
+        var decoder = DecoderFactory.get().binaryDecoder(key, WireFormat.HEADER_SIZE,
+            key.length - WireFormat.HEADER_SIZE, null);
+        assertEquals("pedido-1", decoder.readString());
+
+        assertArrayEquals(key, again);
+        assertFalse(headers.iterator().hasNext());
+        assertEquals(null, serializer.serialize(topico, headers, keyedEventOf(null, "p1")));
+        assertEquals(null, serializer.serialize(topico, headers, null));
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_throw_when_key_attributes_are_not_avro_field_names() {
+
+        // setup
+        var registry = new MockSchemaRegistryClient();
+
+        // act
+        var invalida = assertThrows(IllegalArgumentException.class, () ->
+            keySerializerOf(registry, List.of("source", "1tenant"), "AVRO"));
+        var repetida = assertThrows(IllegalArgumentException.class, () ->
+            keySerializerOf(registry, List.of("source", "source"), "AVRO"));
+
+        // assert
+        assertTrue(invalida.getMessage().contains("1tenant"), invalida.getMessage());
+        assertTrue(repetida.getMessage().contains("repeated"), repetida.getMessage());
+    }
+
+    @Test
+    public void should_write_the_key_of_many_attributes_as_avro_record() throws Exception {
+
+        // setup
+        var topico = "meu-topico-chave-composta";
+        var registry = new MockSchemaRegistryClient();
+        var serializer = keySerializerOf(registry, List.of("source", "partitionkey"), "AVRO");
+
+        // act
+        var key = serializer.serialize(topico, new RecordHeaders(), keyedEventOf(null, "p1"));
+        var other = serializer.serialize(topico, new RecordHeaders(), keyedEventOf("outro", "p1"));
+
+        // assert
+        var schema = (Schema)registry.getSchemaById(
+            WireFormat.schemaIdOf(key)).rawSchema();
+        assertEquals(CloudEventKeys.KEY_NAMESPACE + "." + CloudEventKeys.KEY_NAME,
+            schema.getFullName());
+
+        var decoder = DecoderFactory.get().binaryDecoder(key, WireFormat.HEADER_SIZE,
+            key.length - WireFormat.HEADER_SIZE, null);
+        var actual = (GenericRecord)new GenericDatumReader<>(schema).read(null, decoder);
+
+        assertEquals("/exemplo/enviar", actual.get("source").toString());
+        assertEquals("p1", actual.get("partitionkey").toString());
+
+        // the subject is not a key attribute
+        assertArrayEquals(key, other);
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_write_the_raw_key() {
+
+        // setup
+        var registry = new MockSchemaRegistryClient();
+        var serializer = keySerializerOf(registry, "subject, partitionkey", "RAW");
+
+        // act
+        var key = serializer.serialize("meu-topico-chave-bruta", new RecordHeaders(),
+            keyedEventOf("pedido-1", "p1"));
+        var partial = serializer.serialize("meu-topico-chave-bruta", new RecordHeaders(),
+            keyedEventOf(null, "p1"));
+        var absent = serializer.serialize("meu-topico-chave-bruta", new RecordHeaders(),
+            keyedEventOf(null, null));
+
+        // assert
+        assertEquals("pedido-1:p1", new String(key, StandardCharsets.UTF_8));
+        assertEquals(":p1", new String(partial, StandardCharsets.UTF_8));
+        assertEquals(null, absent);
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_reject_the_payload_above_the_max_size() {
+
+        // setup
+        var topico = "meu-topico-limite";
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.MAX_PAYLOAD_BYTES_CONFIG, 1024);
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var grande = eventOf(new GenericRecordBuilder(AvroEventDataExample.getClassSchema())
+            .set("code", 194l)
+            .set("name", "Nome 194")
+            .set("description", "Descrição 194 ".repeat(2000))
+            .build());
+
+        var pequeno = eventOf(new GenericRecordBuilder(AvroEventDataExample.getClassSchema())
+            .set("code", 195l)
+            .set("name", "Nome 195")
+            .set("description", "Descrição 195")
+            .build());
+
+        // act
+        var actual = assertThrows(SerializationException.class, () ->
+            serializer.serialize(topico, new RecordHeaders(), grande));
+
+        // assert
+        assertTrue(actual.getMessage().contains(grande.getId()), actual.getMessage());
+        assertTrue(serializer.serialize(topico, new RecordHeaders(), pequeno).length < 1024);
+
+        assertThrows(SerializationException.class, () ->
+            serializer.serializeAll(topico, List.of(pequeno, grande)));
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_not_encode_the_whole_payload_when_there_is_no_store() {
+
+        // setup
+        var topico = "meu-topico-limite-sem-store";
+        var schema = SchemaBuilder.record("Grande")
+            .namespace("org.acme.tipos")
+            .fields()
+                .requiredString("description")
+                .requiredString("depois")
+            .endRecord();
+
+        var serializer = new KafkaAvroCloudEventSerializer(new MockSchemaRegistryClient());
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.MAX_PAYLOAD_BYTES_CONFIG, 1024);
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        // counts the reads of the field after the one that exceeds the limit
+        var leituras = new AtomicInteger();
+        var grande = new GenericData.Record(schema) {
+            @Override
+            public Object get(int i) {
+                if(i == 1){
+                    leituras.incrementAndGet();
+                }
+                return super.get(i);
+            }
+        };
+        grande.put("description", "Descrição 197 ".repeat(2000));
+        grande.put("depois", "Nome 197");
+
+        // act
+        assertThrows(SerializationException.class, () ->
+            serializer.serialize(topico, new RecordHeaders(), eventOf(grande)));
+
+        // assert
+        assertEquals(0, leituras.get());
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_route_each_type_to_its_schema_and_subject(@TempDir Path dir)
+        throws Exception {
+
+        // setup
+        var topico = "meu-topico-tipos";
+        var pedido = SchemaBuilder.record("Pedido")
+            .namespace("org.acme.tipos")
+            .fields()
+                .requiredString("numero")
+            .endRecord();
+        var avsc = Files.writeString(dir.resolve("pedido.avsc"), pedido.toString());
+
+        var registry = new CountingSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.TYPES_CONFIG,
+            "exemplo.criado=" + AvroEventDataExample.class.getName() + ",pedido.criado=" + avsc);
+        configs.put(KafkaAvroCloudEventSerializer.TYPE_SUBJECTS_CONFIG, "pedido.criado=pedidos");
+        configs.put(KafkaAvroCloudEventSerializer.PRELOAD_TOPICS_CONFIG, topico);
+
+        serializer.configure(configs, Boolean.FALSE);
+        var preloadCalls = registry.registerCalls.get() + registry.versionCalls.get();
+
+        var exemplo = CloudEventBuilder.v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo.criado")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(
+                new AvroEventDataExample(196l, "Nome 196", "Descrição 196")))
+            .build();
+
+        var umPedido = CloudEventBuilder.v1(exemplo)
+            .withId(UUID.randomUUID().toString())
+            .withType("pedido.criado")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(
+                new GenericRecordBuilder(pedido).set("numero", "p-196").build()))
+            .build();
+
+        var trocado = CloudEventBuilder.v1(umPedido)
+            .withType("exemplo.criado")
+            .build();
+
+        Headers exemploHeaders = new RecordHeaders();
+        Headers pedidoHeaders = new RecordHeaders();
+
+        // act
+        var exemploBytes = serializer.serialize(topico, exemploHeaders, exemplo);
+        var pedidoBytes = serializer.serialize(topico, pedidoHeaders, umPedido);
+
+        var actual = assertThrows(IllegalArgumentException.class, () ->
+            serializer.serialize(topico, new RecordHeaders(), trocado));
+
+        // assert
+        assertTrue(preloadCalls > 0);
+        assertEquals(preloadCalls, registry.registerCalls.get() + registry.versionCalls.get());
+
+        assertEquals(registry.getId("pedidos", new AvroSchema(pedido)),
+            WireFormat.schemaIdOf(pedidoBytes));
+        assertTrue(new String(pedidoHeaders.lastHeader(KafkaAvroCloudEventSerializer.DATASCHEMA_HEADER)
+            .value()).endsWith("/subjects/pedidos/versions/1/schema"));
+
+        assertEquals(registry.getId(topico + "-value", new AvroSchema(AvroEventDataExample.getClassSchema())),
+            WireFormat.schemaIdOf(exemploBytes));
+
+        assertTrue(actual.getMessage().contains("org.acme.tipos.Pedido"), actual.getMessage());
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_write_with_the_latest_version_of_subject() throws Exception {
+
+        // setup
+        var topico = "meu-topico-ultima-versao";
+        var subject = topico + "-value";
+
+        var v1 = SchemaBuilder.record("Pedido")
+            .namespace("org.acme.tipos")
+            .fields()
+                .requiredString("numero")
+                .requiredString("cliente")
+            .endRecord();
+        var v2 = SchemaBuilder.record("Pedido")
+            .namespace("org.acme.tipos")
+            .fields()
+                .requiredString("numero")
+            .endRecord();
+
+        var registry = new MockSchemaRegistryClient();
+        registry.register(subject, new AvroSchema(v1));
+        var latestId = registry.register(subject, new AvroSchema(v2));
+
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "false");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.USE_LATEST_VERSION_CONFIG, "true");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var valor = new GenericRecordBuilder(v1)
+            .set("numero", "p-320")
+            .set("cliente", "Nome 320")
+            .build();
+
+        Headers headers = new RecordHeaders();
+
+        // act
+        var serialized = serializer.serialize(topico, headers, eventOf(valor));
+
+        // assert
+        assertEquals(latestId, WireFormat.schemaIdOf(serialized));
+        assertTrue(new String(headers.lastHeader(KafkaAvroCloudEventSerializer.DATASCHEMA_HEADER)
+            .value()).endsWith("/subjects/" + subject + "/versions/2/schema"));
+
+        var actual = new GenericDatumReader<GenericRecord>(v2).read(null, DecoderFactory.get()
+            .binaryDecoder(serialized, WireFormat.HEADER_SIZE,
+                serialized.length - WireFormat.HEADER_SIZE, null));
+        assertEquals("p-320", actual.get("numero").toString());
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_write_generated_classes_with_the_latest_version_and_fast_coders()
+        throws Exception {
+
+        // setup
+        var topico = "meu-topico-ultima-versao-rapida";
+        var subject = topico + "-value";
+
+        // the latest version has not the description of generated class
+        var latest = SchemaBuilder.record("AvroEventDataExample")
+            .namespace("org.acme")
+            .fields()
+                .requiredLong("code")
+                .requiredString("name")
+            .endRecord();
+
+        var registry = new MockSchemaRegistryClient();
+        registry.register(subject, new AvroSchema(AvroEventDataExample.getClassSchema()));
+        var latestId = registry.register(subject, new AvroSchema(latest));
+
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "false");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.USE_LATEST_VERSION_CONFIG, "true");
+        configs.put(KafkaAvroCloudEventSerializer.FAST_CODERS_CONFIG, "true");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var valor = new AvroEventDataExample(322l, "Nome 322", "Descrição 322");
+
+        // act
+        var serialized = serializer.serialize(topico, new RecordHeaders(), eventOf(valor));
+
+        // assert
+        assertEquals(latestId, WireFormat.schemaIdOf(serialized));
+
+        var decoder = DecoderFactory.get().binaryDecoder(serialized, WireFormat.HEADER_SIZE,
+            serialized.length - WireFormat.HEADER_SIZE, null);
+        var actual = new GenericDatumReader<GenericRecord>(latest).read(null, decoder);
+
+        assertEquals(322l, actual.get("code"));
+        assertEquals("Nome 322", actual.get("name").toString());
+        assertTrue(decoder.isEnd(), "payload must have just the fields of latest version");
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_register_the_schema_without_java_properties() throws Exception {
+
+        // setup
+        var topico = "meu-topico-sem-propriedades";
+
+        var javaString = SchemaBuilder.builder().stringBuilder()
+            .prop(AvroSchemas.JAVA_STRING_PROPERTY, "String")
+            .endString();
+        var pedido = SchemaBuilder.record("Pedido")
+            .namespace("org.acme.tipos")
+            .fields()
+                .name("numero").type(javaString).noDefault()
+            .endRecord();
+
+        var registry = new MockSchemaRegistryClient();
+        var serializer = new KafkaAvroCloudEventSerializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.AVRO_REMOVE_JAVA_PROPS_CONFIG, "true");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        var valor = new GenericRecordBuilder(pedido).set("numero", "p-321").build();
+
+        Headers headers = new RecordHeaders();
+
+        // act
+        var serialized = serializer.serialize(topico, headers, eventOf(valor));
+
+        // assert
+        var registered = registry.getSchemaById(WireFormat.schemaIdOf(serialized));
+        assertFalse(registered.canonicalString().contains(AvroSchemas.JAVA_STRING_PROPERTY),
+            registered.canonicalString());
+        assertTrue(new String(headers.lastHeader(KafkaAvroCloudEventSerializer.DATASCHEMA_HEADER)
+            .value()).endsWith("/versions/1/schema"));
+
+        serializer.close();
+    }
+
+    @Test
+    public void should_throw_when_reflection_allow_null_is_set() {
+
+        // setup
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+        configs.put(KafkaAvroCloudEventSerializer.AVRO_REFLECTION_ALLOW_NULL_CONFIG, "true");
+
+        var serializer = new KafkaAvroCloudEventSerializer(new MockSchemaRegistryClient());
+
+        // act
+        var actual = assertThrows(IllegalArgumentException.class, () ->
+            serializer.configure(configs, Boolean.FALSE));
+
+        // assert
+        assertTrue(actual.getMessage().contains(
+            KafkaAvroCloudEventSerializer.AVRO_REFLECTION_ALLOW_NULL_CONFIG), actual.getMessage());
+
+        serializer.close();
+    }
+
+    private static CloudEvent eventOf(GenericRecord value) {
+        return CloudEventBuilder
+            .v1()
+            .withId(UUID.randomUUID().toString())
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(value))
+            .build();
+    }
+
+    static class RecordingMetrics implements CloudEventMetrics {
+
+        final List<String> serialized = new ArrayList<>();
+        final List<String> deserialized = new ArrayList<>();
+        final List<String> registryCalls = new ArrayList<>();
+        final List<String> cacheAccesses = new ArrayList<>();
+        final List<String> failures = new ArrayList<>();
+        final List<String> filtered = new ArrayList<>();
+
+        @Override
+        public void serialized(String topic, String type, long nanos, int payloadBytes,
+            int headerBytes) {
+            serialized.add(topic + ":" + type + ":" + payloadBytes + ":" + headerBytes);
+        }
+
+        @Override
+        public void deserialized(String topic, String type, long nanos, int payloadBytes,
+            int headerBytes) {
+            deserialized.add(topic + ":" + type + ":" + payloadBytes + ":" + headerBytes);
+        }
+
+        @Override
+        public void registryCalled(String operation, long nanos, boolean success) {
+            registryCalls.add(operation);
+        }
+
+        @Override
+        public void cacheAccessed(String cache, boolean hit) {
+            cacheAccesses.add(cache + ":" + hit);
+        }
+
+        @Override
+        public void failed(String topic, String type, String operation, Throwable cause) {
+            failures.add(topic + ":" + type + ":" + operation + ":" + cause.getClass().getSimpleName());
+        }
+
+        @Override
+        public void filtered(String topic, String type) {
+            filtered.add(topic + ":" + type);
+        }
+    }
+
+    private static class CountingSchemaRegistryClient extends MockSchemaRegistryClient {
+
+        final AtomicInteger allVersionsCalls = new AtomicInteger();
+        final AtomicInteger versionCalls = new AtomicInteger();
+        final AtomicInteger registerCalls = new AtomicInteger();
+
+        @Override
+        public synchronized int register(String subject, ParsedSchema schema)
+            throws IOException, RestClientException {
+
+            registerCalls.incrementAndGet();
+            return super.register(subject, schema);
+        }
+
+        @Override
+        public synchronized List<Integer> getAllVersions(String subject)
+            throws IOException, RestClientException {
+
+            allVersionsCalls.incrementAndGet();
+            return super.getAllVersions(subject);
+        }
+
+        @Override
+        public synchronized int getVersion(String subject, ParsedSchema schema)
+            throws IOException, RestClientException {
+
+            versionCalls.incrementAndGet();
+            return super.getVersion(subject, schema);
+        }
+    }
 }
@@ -0,0 +1,193 @@
+package io.github.kattlo.cloudevents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.cloudevents.core.builder.CloudEventBuilder;
+import io.cloudevents.kafka.CloudEventSerializer;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import io.confluent.kafka.serializers.KafkaAvroDeserializerConfig;
+import io.confluent.kafka.serializers.KafkaAvroSerializerConfig;
+import org.acme.AvroEventDataExample;
+
+public class ParallelCloudEventDeserializerTest {
+
+    private static final String TOPICO = "meu-topico-paralelo";
+
+    private final KafkaAvroCloudEventSerializerTest.RecordingMetrics metrics =
+        new KafkaAvroCloudEventSerializerTest.RecordingMetrics();
+
+    private final ForkJoinPool executor = new ForkJoinPool(4);
+
+    private KafkaAvroCloudEventSerializer serializer;
+    private KafkaAvroCloudEventDeserializer deserializer;
+
+    @BeforeEach
+    public void beforeEach() {
+
+        var registry = new MockSchemaRegistryClient();
+        serializer = new KafkaAvroCloudEventSerializer(registry);
+        deserializer = new KafkaAvroCloudEventDeserializer(registry);
+
+        Map<String, Object> configs = new HashMap<>();
+
+        configs.put(CloudEventSerializer.ENCODING_CONFIG, "BINARY");
+        configs.put(KafkaAvroSerializerConfig.AUTO_REGISTER_SCHEMAS, "true");
+        configs.put(KafkaAvroSerializerConfig.SCHEMA_REGISTRY_URL_CONFIG,
+            "http://localhost:8081");
+
+        serializer.configure(configs, Boolean.FALSE);
+
+        configs.put(KafkaAvroDeserializerConfig.SPECIFIC_AVRO_READER_CONFIG, "true");
+        configs.put(KafkaAvroCloudEventDeserializer.METRICS_CLASS_CONFIG, metrics);
+        deserializer.configure(configs, Boolean.FALSE);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        serializer.close();
+        deserializer.close();
+        executor.shutdown();
+    }
+
+    private ConsumerRecord<String, byte[]> recordOf(int partition, long offset) {
+
+        Headers headers = new RecordHeaders();
+        var bytes = serializer.serialize(TOPICO, headers, CloudEventBuilder.v1()
+            .withId(partition + "-" + offset)
+            .withSource(URI.create("/exemplo/enviar"))
+            .withType("exemplo.paralelo")
+            .withData(AvroCloudEventData.MIME_TYPE, new AvroCloudEventData<>(
+                new AvroEventDataExample(offset, "Nome " + offset, "Descrição " + partition)))
+            .build());
+
+        return new ConsumerRecord<>(TOPICO, partition, offset, 1000l + offset,
+            TimestampType.CREATE_TIME, null, 5, bytes.length, "chave-" + offset, bytes, headers);
+    }
+
+    private ConsumerRecords<String, byte[]> recordsOf(int partitions, int records) {
+
+        var result = new HashMap<TopicPartition, List<ConsumerRecord<String, byte[]>>>();
+        for(int p = 0; p < partitions; p++){
+            var list = new ArrayList<ConsumerRecord<String, byte[]>>();
+            for(int o = 0; o < records; o++){
+                list.add(recordOf(p, 100 + o));
+            }
+            result.put(new TopicPartition(TOPICO, p), list);
+        }
+
+        return new ConsumerRecords<>(result);
+    }
+
+    @Test
+    public void should_keep_the_order_of_each_partition() {
+
+        // setup
+        var records = recordsOf(3, 200);
+        var parallel = new ParallelCloudEventDeserializer(deserializer, executor, 16);
+
+        // act
+        var actual = parallel.deserialize(records);
+
+        // assert
+        assertEquals(records.count(), actual.count());
+        assertEquals(records.partitions(), actual.partitions());
+
+        for(TopicPartition partition : records.partitions()){
+            var expected = records.records(partition);
+            var events = actual.records(partition);
+
+            for(int i = 0; i < expected.size(); i++){
+                var record = events.get(i);
+
+                assertEquals(expected.get(i).offset(), record.offset());
+                assertEquals(expected.get(i).key(), record.key());
+                assertEquals(expected.get(i).timestamp(), record.timestamp());
+                assertEquals(partition.partition() + "-" + record.offset(), record.value().getId());
+
+                AvroEventDataExample value = AvroCloudEventData.dataOf(record.value().getData());
+                assertEquals(record.offset(), value.getCode());
+            }
+        }
+
+        // the writer schema fetched once, even with concurrent workers
+        assertEquals(List.of("getSchemaById"), metrics.registryCalls);
+    }
+
+    @Test
+    public void should_deserialize_small_batches_in_the_calling_thread() {
+
+        // setup
+        var records = recordsOf(2, 5);
+        var parallel = new ParallelCloudEventDeserializer(deserializer,
+            task -> { throw new AssertionError("not inline"); }, 16);
+
+        // act
+        var actual = parallel.deserialize(records);
+
+        // assert
+        assertEquals(10, actual.count());
+    }
+
+    @Test
+    public void should_keep_the_null_values() {
+
+        // setup
+        var partition = new TopicPartition(TOPICO, 0);
+        var records = new ConsumerRecords<>(Map.of(partition, List.of(
+            new ConsumerRecord<String, byte[]>(TOPICO, 0, 10l, "chave", null))));
+
+        var parallel = new ParallelCloudEventDeserializer(deserializer, executor);
+
+        // act
+        var actual = parallel.deserialize(records);
+
+        // assert
+        assertNull(actual.records(partition).get(0).value());
+    }
+
+    @Test
+    public void should_throw_with_the_offset_of_first_failed_record() {
+
+        // setup
+        var partition = new TopicPartition(TOPICO, 0);
+        var list = new ArrayList<ConsumerRecord<String, byte[]>>();
+        for(int o = 0; o < 50; o++){
+            list.add(recordOf(0, o));
+        }
+
+        var invalid = list.get(30);
+        list.set(30, new ConsumerRecord<>(TOPICO, 0, invalid.offset(), invalid.timestamp(),
+            TimestampType.CREATE_TIME, null, 5, 3, invalid.key(), new byte[]{0, 0, 0, 0, 99},
+            invalid.headers()));
+
+        var parallel = new ParallelCloudEventDeserializer(deserializer, executor, 8);
+
+        // act
+        var actual = assertThrows(SerializationException.class, () ->
+            parallel.deserialize(new ConsumerRecords<>(Map.of(partition, list))));
+
+        // assert
+        assertTrue(actual.getMessage().contains(TOPICO + "-0 at offset 30"), actual.getMessage());
+    }
+}
@@ -0,0 +1,69 @@
+package io.github.kattlo.cloudevents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.avro.SchemaBuilder;
+import org.junit.jupiter.api.Test;
+
+import io.confluent.kafka.schemaregistry.avro.AvroSchema;
+import io.confluent.kafka.schemaregistry.client.MockSchemaRegistryClient;
+import org.acme.AvroEventDataExample;
+
+public class SchemaBundleTest {
+
+    @Test
+    public void should_snapshot_write_and_read_the_subjects() throws Exception {
+
+        // setup
+        var v1 = AvroEventDataExample.getClassSchema();
+        var v2 = SchemaBuilder.record("Exemplo").namespace("org.acme")
+            .fields()
+            .requiredLong("code")
+            .endRecord();
+
+        var registry = new MockSchemaRegistryClient();
+        var id1 = registry.register("meu-topico-value", new AvroSchema(v1));
+        var id2 = registry.register("meu-topico-value", new AvroSchema(v2));
+        registry.register("outro-topico-value", new AvroSchema(v2));
+
+        // act
+        var out = new ByteArrayOutputStream();
+        SchemaBundle.snapshot(registry, List.of("meu-topico-value")).write(out);
+
+        var actual = SchemaBundle.read(new ByteArrayInputStream(out.toByteArray()));
+
+        // assert
+        assertEquals(2, actual.getEntries().size());
+        assertEquals(id1, actual.idOf("meu-topico-value", v1));
+        assertEquals(id2, actual.idOf("meu-topico-value", v2));
+        assertEquals(1, actual.versionOf("meu-topico-value", id1));
+        assertEquals(2, actual.versionOf("meu-topico-value", id2));
+        assertEquals(v1, actual.schemaOf(id1));
+
+        assertNull(actual.idOf("outro-topico-value", v2));
+        assertNull(actual.schemaOf(99));
+    }
+
+    @Test
+    public void should_throw_when_format_is_unknown() {
+
+        var bundle = "{\"format\": 2, \"schemas\": []}";
+
+        assertThrows(IOException.class, () ->
+            SchemaBundle.read(new ByteArrayInputStream(bundle.getBytes())));
+    }
+
+    @Test
+    public void should_throw_when_bundle_file_is_not_found() {
+
+        assertThrows(IllegalArgumentException.class, () ->
+            SchemaBundle.load("bundle", "nao-existe.json"));
+    }
+}